@@ -0,0 +1,47 @@
+package com.despegar.jdbc.galera.benchmarks;
+
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraClient;
+import com.despegar.jdbc.galera.GaleraDB;
+import com.despegar.jdbc.galera.GaleraNode;
+import com.despegar.jdbc.galera.settings.PoolSettings;
+
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkClients {
+    static final int MAX_THREADS = 64;
+
+    private BenchmarkClients() {
+    }
+
+    /**
+     * A test mode client on an H2 in memory database with enough connections for {@link #MAX_THREADS} threads.
+     */
+    static GaleraClient h2Client() {
+        return GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:")
+                .seeds("mem")
+                .jdbcUrlSeparator(":")
+                .database("benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1")
+                .user("sa")
+                .connectionTimeout(30000)
+                .maxConnectionsPerHost(MAX_THREADS)
+                .minConnectionsIdlePerHost(MAX_THREADS)
+                .build();
+    }
+
+    /**
+     * A topology of test mode nodes: no pool is created for them.
+     */
+    static ClusterTopology topology(int nodeCount) {
+        GaleraDB galeraDB = new GaleraDB("benchmark", "sa", "");
+        PoolSettings poolSettings = PoolSettings.newBuilder().minConnectionsIdlePerHost(1).build();
+        List<GaleraNode> nodes = new ArrayList<GaleraNode>(nodeCount);
+        for (int i = nodeCount; i > 0; i--) {
+            nodes.add(new GaleraNode("galera-" + i + ":3306", galeraDB, poolSettings, poolSettings, true));
+        }
+        return new ClusterTopology(1, nodes);
+    }
+}
@@ -0,0 +1,31 @@
+package com.despegar.jdbc.galera.benchmarks;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks matching the given regular expression (all of them by default) with 1, 2, 4, 8, 16, 32 and 64 threads.
+ * Results of each thread count are written to jmh-result-{threads}.csv.
+ * <p>
+ * java -cp target/benchmarks.jar com.despegar.jdbc.galera.benchmarks.BenchmarkRunner [regexp]
+ */
+public class BenchmarkRunner {
+    private static final int[] THREADS = { 1, 2, 4, 8, 16, 32, BenchmarkClients.MAX_THREADS };
+
+    public static void main(String[] args) throws RunnerException {
+        String include = (args.length > 0) ? args[0] : "com.despegar.jdbc.galera.benchmarks.*";
+
+        for (int threads : THREADS) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .result("jmh-result-" + threads + ".csv")
+                    .resultFormat(ResultFormatType.CSV)
+                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.despegar.jdbc.galera.benchmarks;
+
+import com.despegar.jdbc.galera.GaleraStatus;
+import com.despegar.jdbc.galera.consistency.ConsistencyLevel;
+import com.despegar.jdbc.galera.consistency.GaleraProxyConnection;
+import com.despegar.jdbc.galera.consistency.SessionConsistencyTracker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the reflective {@link GaleraProxyConnection} against the per session tracking of {@link SessionConsistencyTracker}:
+ * a whole checkout with a level (the proxy sets it and restores it on close, the tracker only sets it the first time) and a
+ * single JDBC call on a checked out connection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@SuppressWarnings("deprecation")
+public class ConsistencyLevelBenchmark {
+
+    private PooledH2Connection pooledConnection;
+    private GaleraStatus status;
+    private Connection proxy;
+    private SessionConsistencyTracker tracker;
+
+    @Setup
+    public void setup() throws SQLException {
+        pooledConnection = new PooledH2Connection(DriverManager.getConnection("jdbc:h2:mem:", "sa", ""));
+        status = syncWaitStatus();
+        proxy = GaleraProxyConnection.create(pooledConnection, ConsistencyLevel.SYNC_READS, status);
+        tracker = new SessionConsistencyTracker();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        pooledConnection.closePhysical();
+    }
+
+    @Benchmark
+    public boolean proxyCall() throws SQLException {
+        return proxy.getAutoCommit();
+    }
+
+    @Benchmark
+    public boolean trackedCall() throws SQLException {
+        return pooledConnection.getAutoCommit();
+    }
+
+    @Benchmark
+    public void proxyCheckout() throws SQLException {
+        GaleraProxyConnection.create(pooledConnection, ConsistencyLevel.SYNC_READS, status).close();
+    }
+
+    @Benchmark
+    public void trackedCheckout() throws SQLException {
+        tracker.ensure(pooledConnection, ConsistencyLevel.SYNC_READS.value, status);
+        pooledConnection.close();
+    }
+
+    static GaleraStatus syncWaitStatus() {
+        Map<String, String> statusMap = new HashMap<String, String>();
+        statusMap.put("wsrep_cluster_status", "Primary");
+        statusMap.put("wsrep_local_state_comment", "Synced");
+        statusMap.put("wsrep_incoming_addresses", "mem");
+        statusMap.put("wsrep_sync_wait", "0");
+        return new GaleraStatus(statusMap);
+    }
+}
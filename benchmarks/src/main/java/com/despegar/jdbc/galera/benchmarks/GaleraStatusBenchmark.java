@@ -0,0 +1,96 @@
+package com.despegar.jdbc.galera.benchmarks;
+
+import com.despegar.jdbc.galera.GaleraStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Building a {@link GaleraStatus} from the variables of a 9 node cluster and reading it the way discovery and
+ * getConnection do.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GaleraStatusBenchmark {
+
+    private Map<String, String> statusMap;
+    private GaleraStatus status;
+
+    @Setup
+    public void setup() {
+        statusMap = statusMap(9);
+        status = new GaleraStatus(new HashMap<String, String>(statusMap));
+    }
+
+    @Benchmark
+    public GaleraStatus parse() {
+        return new GaleraStatus(new HashMap<String, String>(statusMap));
+    }
+
+    @Benchmark
+    public void discoveryChecks(Blackhole blackhole) {
+        blackhole.consume(status.isPrimary());
+        blackhole.consume(status.isSynced());
+        blackhole.consume(status.isDonor());
+        blackhole.consume(status.getClusterNodes());
+    }
+
+    @Benchmark
+    public void checkoutChecks(Blackhole blackhole) {
+        blackhole.consume(status.supportsSyncWait());
+        blackhole.consume(status.getGlobalConsistencyLevel());
+    }
+
+    @Benchmark
+    public Integer threadsConnected() {
+        return status.threadsConnectedCount();
+    }
+
+    /**
+     * The variables returned by the status probe of a synced node, plus some of the other wsrep_% ones.
+     */
+    static Map<String, String> statusMap(int clusterSize) {
+        Map<String, String> statusMap = new HashMap<String, String>();
+        StringBuilder incomingAddresses = new StringBuilder();
+        for (int i = 1; i <= clusterSize; i++) {
+            incomingAddresses.append(i > 1 ? "," : "").append("10.0.0.").append(i).append(":3306");
+        }
+        statusMap.put("wsrep_incoming_addresses", incomingAddresses.toString());
+        statusMap.put("wsrep_cluster_status", "Primary");
+        statusMap.put("wsrep_local_state_comment", "Synced");
+        statusMap.put("wsrep_local_state", "4");
+        statusMap.put("wsrep_cluster_size", String.valueOf(clusterSize));
+        statusMap.put("wsrep_ready", "ON");
+        statusMap.put("wsrep_connected", "ON");
+        statusMap.put("wsrep_local_index", "0");
+        statusMap.put("wsrep_last_committed", "123456789");
+        statusMap.put("wsrep_flow_control_paused", "0.000000");
+        statusMap.put("wsrep_local_recv_queue_avg", "0.012345");
+        statusMap.put("wsrep_local_send_queue_avg", "0.000000");
+        statusMap.put("wsrep_cert_deps_distance", "27.321000");
+        statusMap.put("wsrep_local_cert_failures", "12");
+        statusMap.put("wsrep_local_bf_aborts", "3");
+        statusMap.put("Threads_connected", "152");
+        statusMap.put("wsrep_sync_wait", "0");
+        for (int i = 0; i < 40; i++) {
+            statusMap.put("wsrep_other_variable_" + i, String.valueOf(i));
+        }
+        return statusMap;
+    }
+}
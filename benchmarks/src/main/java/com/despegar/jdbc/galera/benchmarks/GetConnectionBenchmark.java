@@ -0,0 +1,57 @@
+package com.despegar.jdbc.galera.benchmarks;
+
+import com.despegar.jdbc.galera.GaleraClient;
+import com.despegar.jdbc.galera.consistency.ConsistencyLevel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout and release of a connection through {@link GaleraClient} in test mode against an H2 in memory database.
+ * The consistency level used is the global one of the test status, so no SET SESSION is sent (H2 does not support it):
+ * it measures the client overhead of the consistency level path, not the round trip.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GetConnectionBenchmark {
+
+    private GaleraClient client;
+
+    @Setup
+    public void setup() {
+        client = BenchmarkClients.h2Client();
+    }
+
+    @TearDown
+    public void tearDown() {
+        client.shutdown();
+    }
+
+    @Benchmark
+    public void getConnection() throws SQLException {
+        Connection connection = client.getConnection();
+        connection.close();
+    }
+
+    @Benchmark
+    public void getConnectionWithConsistencyLevel() throws SQLException {
+        Connection connection = client.getConnection(ConsistencyLevel.SYNC_OFF, null);
+        connection.close();
+    }
+}
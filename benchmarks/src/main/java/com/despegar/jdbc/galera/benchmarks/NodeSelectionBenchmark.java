@@ -0,0 +1,77 @@
+package com.despegar.jdbc.galera.benchmarks;
+
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraNode;
+import com.despegar.jdbc.galera.policies.MasterSortingNodesPolicy;
+import com.despegar.jdbc.galera.policies.RoundRobinPolicy;
+import com.despegar.jdbc.galera.policies.WeightedRoundRobinPolicy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the bundled election node policies, both choosing from the topology snapshot and choosing by name.
+ * Policies are shared by all the benchmark threads, as they are shared by the callers of a client.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NodeSelectionBenchmark {
+
+    @Param({"3", "9"})
+    public int nodes;
+
+    private ClusterTopology topology;
+    private List<String> nodeNames;
+    private RoundRobinPolicy roundRobinPolicy;
+    private MasterSortingNodesPolicy masterSortingNodesPolicy;
+    private WeightedRoundRobinPolicy weightedRoundRobinPolicy;
+
+    @Setup
+    public void setup() {
+        topology = BenchmarkClients.topology(nodes);
+        nodeNames = topology.nodeNames();
+        roundRobinPolicy = new RoundRobinPolicy();
+        masterSortingNodesPolicy = new MasterSortingNodesPolicy();
+        weightedRoundRobinPolicy = new WeightedRoundRobinPolicy();
+    }
+
+    @Benchmark
+    public GaleraNode roundRobin() {
+        return roundRobinPolicy.chooseNode(topology);
+    }
+
+    @Benchmark
+    public String roundRobinByName() {
+        return roundRobinPolicy.chooseNode(nodeNames);
+    }
+
+    @Benchmark
+    public GaleraNode masterSorting() {
+        return masterSortingNodesPolicy.chooseNode(topology);
+    }
+
+    @Benchmark
+    public String masterSortingByName() {
+        return masterSortingNodesPolicy.chooseNode(nodeNames);
+    }
+
+    @Benchmark
+    public GaleraNode weightedRoundRobin() {
+        return weightedRoundRobinPolicy.chooseNode(topology);
+    }
+}
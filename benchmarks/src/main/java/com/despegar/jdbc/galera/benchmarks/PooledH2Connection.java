@@ -0,0 +1,34 @@
+package com.despegar.jdbc.galera.benchmarks;
+
+import com.despegar.jdbc.galera.consistency.DelegatingConnection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * H2 connection that behaves like a pooled MariaDB connection for the purpose of the benchmarks: close() does not close the
+ * physical connection, and the session variable statements issued by the client are mapped to H2 user variables.
+ */
+public class PooledH2Connection extends DelegatingConnection {
+    private static final String SET_SESSION = "SET SESSION ";
+    private static final String SET_USER_VARIABLE = "SET @";
+
+    public PooledH2Connection(Connection delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        return delegate.prepareStatement(sql.startsWith(SET_SESSION) ? SET_USER_VARIABLE + sql.substring(SET_SESSION.length()) : sql);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        // Returned to the "pool": the physical connection stays open
+    }
+
+    public void closePhysical() throws SQLException {
+        delegate.close();
+    }
+}
@@ -0,0 +1,130 @@
+package com.despegar.jdbc.galera;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable view of the active galera nodes, published by discovery each time the set of active nodes changes.
+ * Node selection reads a single snapshot, so the chosen {@link GaleraNode} can be taken straight from the array without
+ * looking it up again by name.
+ * Views derived from a published topology, as the writer set or the nodes qualifying for a bounded staleness read, are built
+ * with {@link #filteredFrom} and keep a reference to the published one.
+ */
+public final class ClusterTopology {
+    private static final Comparator<GaleraNode> BY_NAME = new Comparator<GaleraNode>() {
+        @Override
+        public int compare(GaleraNode node1, GaleraNode node2) {
+            return node1.node.compareTo(node2.node);
+        }
+    };
+
+    public static final ClusterTopology EMPTY = new ClusterTopology(0, Collections.<GaleraNode>emptyList());
+
+    public final long version;
+    public final long createdAt;
+    private final ClusterTopology published;
+    private final GaleraNode[] nodes;
+    private final GaleraNode[] nodesByName;
+    private final int[] weights;
+    private final List<String> nodeNames;
+
+    public ClusterTopology(long version, Collection<GaleraNode> activeNodes) {
+        this(version, activeNodes, null);
+    }
+
+    private ClusterTopology(long version, Collection<GaleraNode> activeNodes, ClusterTopology parent) {
+        this.version = version;
+        this.createdAt = System.currentTimeMillis();
+        this.published = (parent == null) ? this : parent.published;
+        this.nodes = activeNodes.toArray(new GaleraNode[activeNodes.size()]);
+        this.nodesByName = Arrays.copyOf(nodes, nodes.length);
+        Arrays.sort(nodesByName, BY_NAME);
+
+        List<String> names = new ArrayList<String>(nodes.length);
+        this.weights = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            names.add(nodes[i].node);
+            weights[i] = nodes[i].getWeight();
+        }
+        this.nodeNames = Collections.unmodifiableList(names);
+    }
+
+    /**
+     * @param nodes nodes of the parent topology the view is made of
+     * @return a view of the parent with its version
+     */
+    public static ClusterTopology filteredFrom(ClusterTopology parent, Collection<GaleraNode> nodes) {
+        return new ClusterTopology(parent.version, nodes, parent);
+    }
+
+    /**
+     * @return whether this topology is a view derived from a published one
+     */
+    public boolean isFiltered() {
+        return published != this;
+    }
+
+    /**
+     * @return the published topology this one derives from, or this one when it is not a filtered view
+     */
+    public ClusterTopology published() {
+        return published;
+    }
+
+    public int size() {
+        return nodes.length;
+    }
+
+    public boolean isEmpty() {
+        return nodes.length == 0;
+    }
+
+    public GaleraNode get(int index) {
+        return nodes[index];
+    }
+
+    /**
+     * @return weight the node at the given index had when this snapshot was taken
+     */
+    public int weight(int index) {
+        return weights[index];
+    }
+
+    /**
+     * @param index position in the active nodes sorted alphabetically by name
+     */
+    public GaleraNode getSortedByName(int index) {
+        return nodesByName[index];
+    }
+
+    /**
+     * @return the active node with the given name or null if it is not part of this topology
+     */
+    public GaleraNode find(String node) {
+        for (GaleraNode galeraNode : nodes) {
+            if (galeraNode.node.equals(node)) {
+                return galeraNode;
+            }
+        }
+        return null;
+    }
+
+    public List<String> nodeNames() {
+        return nodeNames;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("version", version)
+                .add("nodes", nodeNames)
+                .add("filtered", isFiltered())
+                .toString();
+    }
+}
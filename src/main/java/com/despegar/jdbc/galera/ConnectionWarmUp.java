@@ -0,0 +1,137 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.settings.PoolSettings;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Borrows warmUpConnections connections at once from a new pool and prepares the warm-up statements on each of them, so the
+ * handshakes and server side prepares are paid before the node gets traffic. Each connection is held until all of them are
+ * borrowed, otherwise the pool would hand the same idle connection again.
+ * Warm-up is best effort: failures and timeouts are logged and the node is activated anyway.
+ * Warm-ups run on their own threads, not on the discovery thread, which keeps probing the other nodes meanwhile.
+ */
+final class ConnectionWarmUp {
+    private static final Logger LOG = LoggerFactory.getLogger(ConnectionWarmUp.class);
+
+    private static final ListeningExecutorService EXECUTOR = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool(
+            new ThreadFactoryBuilder().setNameFormat("galera-warmup-%d").setDaemon(true).build()));
+
+    private ConnectionWarmUp() {
+    }
+
+    /**
+     * @return future of the connections that were borrowed and prepared the statements. It completes at once when warm-up is
+     * disabled, and at the latest when the warm-up timeout passes.
+     */
+    static ListenableFuture<Integer> warmUpAsync(final String node, final DataSource dataSource, final PoolSettings poolSettings) {
+        if (poolSettings.warmUpConnections <= 0) {
+            return Futures.immediateFuture(0);
+        }
+        return EXECUTOR.submit(new Callable<Integer>() {
+            @Override
+            public Integer call() {
+                return warmUp(node, dataSource, poolSettings);
+            }
+        });
+    }
+
+    /**
+     * @return connections that were borrowed and prepared the statements
+     */
+    static int warmUp(String node, DataSource dataSource, PoolSettings poolSettings) {
+        int connections = poolSettings.warmUpConnections;
+        if (connections <= 0) {
+            return 0;
+        }
+
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(poolSettings.warmUpTimeout);
+        CountDownLatch borrowed = new CountDownLatch(connections);
+        ExecutorService executor = Executors.newFixedThreadPool(connections, new ThreadFactoryBuilder()
+                .setNameFormat("galera-warmup-" + node + "-%d").setDaemon(true).build());
+        int warmed = 0;
+        try {
+            List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>(connections);
+            for (int i = 0; i < connections; i++) {
+                futures.add(executor.submit(new WarmUpTask(dataSource, poolSettings.warmUpStatements, borrowed, deadline)));
+            }
+            for (Future<Boolean> future : futures) {
+                try {
+                    if (future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                        warmed++;
+                    }
+                } catch (ExecutionException e) {
+                    LOG.warn("Could not warm up a connection of node {}. Reason {}", node, e.getCause().toString());
+                } catch (TimeoutException e) {
+                    LOG.warn("Warm-up of node {} timed out after {} ms", node, poolSettings.warmUpTimeout);
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        LOG.info("Warmed up {} of {} connections of node {} in {} ms", warmed, connections, node,
+                 TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return warmed;
+    }
+
+    private static class WarmUpTask implements Callable<Boolean> {
+        private final DataSource dataSource;
+        private final List<String> statements;
+        private final CountDownLatch borrowed;
+        private final long deadline;
+
+        WarmUpTask(DataSource dataSource, List<String> statements, CountDownLatch borrowed, long deadline) {
+            this.dataSource = dataSource;
+            this.statements = statements;
+            this.borrowed = borrowed;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public Boolean call() throws Exception {
+            Connection connection = null;
+            try {
+                connection = dataSource.getConnection();
+                for (String statement : statements) {
+                    PreparedStatement preparedStatement = connection.prepareStatement(statement);
+                    preparedStatement.close();
+                }
+                return true;
+            } finally {
+                borrowed.countDown();
+                try {
+                    borrowed.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                if (connection != null) {
+                    connection.close();
+                }
+            }
+        }
+    }
+}
@@ -1,18 +1,33 @@
 package com.despegar.jdbc.galera;
 
 import com.codahale.metrics.MetricRegistry;
+import com.despegar.jdbc.galera.consistency.CausalityToken;
 import com.despegar.jdbc.galera.consistency.ConsistencyLevel;
+import com.despegar.jdbc.galera.consistency.ReplicationLagBound;
+import com.despegar.jdbc.galera.discovery.CommitHistory;
+import com.despegar.jdbc.galera.discovery.DiscoveryCycleResult;
+import com.despegar.jdbc.galera.discovery.ProbeResult;
+import com.despegar.jdbc.galera.discovery.ProbeSchedule;
 import com.despegar.jdbc.galera.listener.GaleraClientListener;
 import com.despegar.jdbc.galera.listener.GaleraClientLoggingListener;
 import com.despegar.jdbc.galera.metrics.PoolMetrics;
 import com.despegar.jdbc.galera.policies.ElectionNodePolicy;
 import com.despegar.jdbc.galera.policies.RoundRobinPolicy;
+import com.despegar.jdbc.galera.policies.SlowStart;
+import com.despegar.jdbc.galera.policies.TopologyAwarePolicy;
 import com.despegar.jdbc.galera.settings.ClientSettings;
 import com.despegar.jdbc.galera.settings.DiscoverSettings;
 import com.despegar.jdbc.galera.settings.PoolSettings;
+import com.despegar.jdbc.galera.utils.GaleraErrors;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Predicate;
 import com.google.common.base.Splitter;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,10 +35,19 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.PrintWriter;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -31,32 +55,79 @@ public class GaleraClient extends AbstractGaleraDataSource {
 
     private static final Logger LOG = LoggerFactory.getLogger(GaleraClient.class);
     public static MetricRegistry metricRegistry = new MetricRegistry();
+    private static final String QUERY_LAST_COMMITTED = "SHOW STATUS LIKE 'wsrep_last_committed'";
 
     protected Map<String, GaleraNode> nodes = new ConcurrentHashMap<String, GaleraNode>();
     private List<String> activeNodes = new CopyOnWriteArrayList<String>();
     private List<String> downedNodes = new CopyOnWriteArrayList<String>();
-    private ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
+    private volatile ClusterTopology topology = ClusterTopology.EMPTY;
     private GaleraDB galeraDB;
     private PoolSettings poolSettings;
-    private PoolSettings internalPoolSettings;
     private DiscoverSettings discoverSettings;
     private ClientSettings clientSettings;
     private AtomicBoolean isDiscoveryRunning = new AtomicBoolean(false);
+    private GaleraClusterMonitor monitor;
+    private ScheduledFuture<?> discoveryFuture;
+    private volatile boolean isShutdown;
+    private ProbeSchedule probeSchedule;
+    private Map<String, Set<String>> clusterViews = new ConcurrentHashMap<String, Set<String>>();
+    private Set<String> pendingReprobes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private CommitHistory commitHistory = new CommitHistory();
+    private Set<String> laggingNodes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private Set<String> warmingUpNodes = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private Map<String, Integer> nodeWeights = new ConcurrentHashMap<String, Integer>();
+    private WriterElection writerElection;
+    private volatile boolean seedsRegistered;
+    private PoolSettings writePoolSettings;
+    private AtomicBoolean isDiscoveryRequested = new AtomicBoolean(false);
     private Runnable discoverRunnable = new Runnable() {
         @Override
         public void run() {
             discovery();
         }
     };
+    private Runnable requestedDiscoveryRunnable = new Runnable() {
+        @Override
+        public void run() {
+            isDiscoveryRequested.set(false);
+            discovery();
+        }
+    };
+    private GaleraClusterMonitor.Subscriber monitorSubscriber = new GaleraClusterMonitor.Subscriber() {
+        @Override
+        public void onStatusChanged(String node, GaleraStatus status) {
+            if (nodes.containsKey(node)) {
+                requestDiscovery(node);
+            }
+        }
+    };
 
     protected GaleraClient(ClientSettings clientSettings, DiscoverSettings discoverSettings, GaleraDB galeraDB, PoolSettings poolSettings,
                            PoolSettings internalPoolSettings) {
+        this(clientSettings, discoverSettings, galeraDB, poolSettings, null, internalPoolSettings);
+    }
+
+    /**
+     * @param writePoolSettings settings of the per node pools of write connections, or null to take them from the same pools
+     *                          as the other connections
+     */
+    protected GaleraClient(ClientSettings clientSettings, DiscoverSettings discoverSettings, GaleraDB galeraDB, PoolSettings poolSettings,
+                           @Nullable PoolSettings writePoolSettings, PoolSettings internalPoolSettings) {
         this.galeraDB = galeraDB;
         this.poolSettings = poolSettings;
-        this.internalPoolSettings = internalPoolSettings;
+        this.writePoolSettings = writePoolSettings;
         this.discoverSettings = discoverSettings;
         this.clientSettings = clientSettings;
+        this.nodeWeights.putAll(clientSettings.nodeWeights);
+        this.writerElection = new WriterElection(clientSettings, discoverSettings.discoverPeriod);
+        this.monitor = (discoverSettings.sharedClusterMonitor && !clientSettings.testMode)
+                       ? GaleraClusterMonitor.subscribe(clientSettings.seeds, galeraDB, internalPoolSettings, discoverSettings, monitorSubscriber)
+                       : GaleraClusterMonitor.newPrivateMonitor(galeraDB, internalPoolSettings, discoverSettings, monitorSubscriber);
+        this.probeSchedule = new ProbeSchedule(discoverSettings.discoverPeriod, discoverSettings.healthyProbePeriod,
+                                               discoverSettings.maxDownedBackoff);
         registerNodes(clientSettings.seeds);
+        seedsRegistered = true;
+        electWriter();
         startDiscovery(discoverSettings.discoverPeriod);
     }
 
@@ -66,6 +137,10 @@ public class GaleraClient extends AbstractGaleraDataSource {
 
     private void discovery() {
 
+        if (isShutdown) {
+            return;
+        }
+
         if (!isDiscoveryRunning.compareAndSet(false, true)) {
             LOG.info("Skipping discovery because it is already running");
             return;
@@ -81,11 +156,15 @@ public class GaleraClient extends AbstractGaleraDataSource {
             LOG.debug("Discovering Galera cluster...");
         }
         try {
-            discoverActiveNodes();
-            testDownedNodes();
+            Map<String, Callable<GaleraStatus>> probes = statusProbes();
+            ClusterTopology previousTopology = topology;
+            DiscoveryCycleResult cycleResult = monitor.nodeProber().probe(probes);
+            applyCycleResult(cycleResult);
+            closeExpiredQuarantines();
+            reprobeOnChanges(previousTopology, topology);
 
             if (LOG.isDebugEnabled()) {
-                LOG.debug("Active nodes: {},  Downed nodes: {}", activeNodes, downedNodes);
+                LOG.debug("Discovery cycle took {} ms. Active nodes: {},  Downed nodes: {}", cycleResult.elapsedMillis, activeNodes, downedNodes);
             }
         } catch (Throwable reason) {
             LOG.error("Galera discovery failed", reason);
@@ -99,69 +178,298 @@ public class GaleraClient extends AbstractGaleraDataSource {
 
     }
 
-    private void testDownedNodes() {
+    /**
+     * Active nodes are probed first, then the downed ones. Only the nodes due according to the probe schedule are probed.
+     */
+    private Map<String, Callable<GaleraStatus>> statusProbes() {
+        long now = System.currentTimeMillis();
+        Map<String, Callable<GaleraStatus>> probes = new LinkedHashMap<String, Callable<GaleraStatus>>();
+        for (String activeNode : activeNodes) {
+            if (probeSchedule.isDue(activeNode, now)) {
+                probes.put(activeNode, statusProbe(activeNode, probeSchedule.isForced(activeNode)));
+            }
+        }
         for (String downedNode : downedNodes) {
+            if (!probes.containsKey(downedNode) && probeSchedule.isDue(downedNode, now)) {
+                probes.put(downedNode, statusProbe(downedNode, probeSchedule.isForced(downedNode)));
+            }
+        }
+        return probes;
+    }
+
+    /**
+     * @param force skip the status shared by the cluster monitor, for nodes reprobed on a failure or a cluster change
+     */
+    private Callable<GaleraStatus> statusProbe(final String node, final boolean force) {
+        return new Callable<GaleraStatus>() {
+            @Override
+            public GaleraStatus call() throws Exception {
+                return refreshStatus(node, force);
+            }
+        };
+    }
+
+    private void applyCycleResult(DiscoveryCycleResult cycleResult) {
+        for (ProbeResult probeResult : cycleResult.results()) {
+            String node = probeResult.node;
+            if (!nodes.containsKey(node)) {
+                continue;
+            }
+
             try {
-                discover(downedNode);
-                GaleraNode galeraNode = nodes.get(downedNode);
-                if (galeraNode != null && !(galeraNode.status().isDonor() && discoverSettings.ignoreDonor) && galeraNode.status().isPrimary()) {
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug("Will activate a previous downed node: {}", downedNode);
-                    }
-                    activate(downedNode);
+                if (probeResult.timedOut) {
+                    down(node, "status probe timed out after " + probeResult.elapsedMillis + " ms");
+                } else if (!probeResult.isSuccess()) {
+                    LOG.error("We could not refresh node status for " + node + " so we remove it", probeResult.failure.get());
+                    removeNode(node);
+                } else {
+                    onStatus(node, probeResult.status.get());
                 }
             } catch (Exception e) {
-                down(downedNode, e.getMessage());
+                down(node, "failure in connection. " + e.getMessage());
             }
+
+            reschedule(node);
+        }
+    }
+
+    private void reschedule(String node) {
+        long now = System.currentTimeMillis();
+        if (isActive(node)) {
+            probeSchedule.onHealthy(node, now);
+        } else if (downedNodes.contains(node)) {
+            probeSchedule.onDowned(node, now);
+        } else {
+            probeSchedule.forget(node);
         }
     }
 
-    private void activate(String downedNode) {
-        if (!activeNodes.contains(downedNode)) {
+    /**
+     * Fast path: when a node joins or leaves the active nodes, every other node is probed right away instead of waiting for
+     * its relaxed or backed off schedule. Nodes that appeared or disappeared from wsrep_incoming_addresses are probed right
+     * away too.
+     */
+    private void reprobeOnChanges(ClusterTopology previousTopology, ClusterTopology currentTopology) {
+        Set<String> reprobes = new HashSet<String>(pendingReprobes);
+        pendingReprobes.removeAll(reprobes);
+
+        if (previousTopology.version != currentTopology.version) {
+            Set<String> transitioned = Sets.symmetricDifference(new HashSet<String>(previousTopology.nodeNames()),
+                                                                new HashSet<String>(currentTopology.nodeNames()));
+            if (!transitioned.isEmpty()) {
+                reprobes.addAll(Sets.difference(probeSchedule.nodes(), transitioned));
+            }
+        }
+
+        if (!reprobes.isEmpty() && !clientSettings.testMode && !isShutdown) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Cluster changes seen. Probing {} right away", reprobes);
+            }
+            probeSchedule.probeNow(reprobes);
+            monitor.scheduler().execute(discoverRunnable);
+        }
+    }
+
+    /**
+     * The node is published once its connections are warmed up, or the warm-up timed out, without holding the discovery
+     * thread meanwhile. When no node is active it is published right away and warms up while it takes traffic.
+     */
+    private void activate(final String downedNode) {
+        if (!activeNodes.contains(downedNode) && warmingUpNodes.add(downedNode)) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Activating node:  {}", downedNode);
             }
 
-            nodes.get(downedNode).onActivate();
-            activeNodes.add(downedNode);
-            downedNodes.remove(downedNode);
+            ListenableFuture<Integer> warmUp = nodes.get(downedNode).onActivate();
+            if (warmUp.isDone() || activeNodes.isEmpty()) {
+                publishActivation(downedNode);
+                return;
+            }
+            warmUp.addListener(new Runnable() {
+                @Override
+                public void run() {
+                    if (!isShutdown) {
+                        monitor.scheduler().execute(new Runnable() {
+                            @Override
+                            public void run() {
+                                publishActivation(downedNode);
+                            }
+                        });
+                    }
+                }
+            }, MoreExecutors.directExecutor());
+        }
+    }
 
-            clientSettings.galeraClientListener.onActivatingNode(downedNode);
+    /**
+     * Does nothing when the node went down, was removed or the client was shut down while it warmed up.
+     */
+    private void publishActivation(String node) {
+        if (!warmingUpNodes.remove(node) || isShutdown) {
+            return;
         }
+        activeNodes.add(node);
+        downedNodes.remove(node);
+        publishTopology();
+
+        clientSettings.galeraClientListener.onActivatingNode(node);
     }
 
-    private void down(String node, String cause) {
+    @VisibleForTesting
+    void down(String node, String cause) {
         if (LOG.isDebugEnabled()) {
             LOG.debug("Marking node {} as down due to {}", node, cause);
         }
-        activeNodes.remove(node);
+        laggingNodes.remove(node);
+        warmingUpNodes.remove(node);
+        if (activeNodes.remove(node)) {
+            publishTopology();
+        }
         if (!downedNodes.contains(node)) {
             downedNodes.add(node);
         }
-        closeConnections(node);
+        if (discoverSettings.quarantinePeriod > 0) {
+            quarantine(node);
+        } else {
+            closeConnections(node);
+        }
 
         clientSettings.galeraClientListener.onMarkingNodeAsDown(node, cause);
     }
 
-    private void discoverActiveNodes() {
-        for (String node : activeNodes) {
-            try {
-                discover(node);
-            } catch (Exception e) {
-                down(node, "failure in connection. " + e.getMessage());
-            }
-        }
-    }
-
     private void removeNode(String node) {
-        activeNodes.remove(node);
+        laggingNodes.remove(node);
+        warmingUpNodes.remove(node);
+        if (activeNodes.remove(node)) {
+            publishTopology();
+        }
         downedNodes.remove(node);
+        clusterViews.remove(node);
+        probeSchedule.forget(node);
         shutdownGaleraNode(node);
         nodes.remove(node);
 
         clientSettings.galeraClientListener.onRemovingNode(node);
     }
 
+    /**
+     * Publishes a new immutable snapshot of the active nodes. It must be called each time activeNodes or laggingNodes changes.
+     * Lagging nodes are left out unless every active node is lagging.
+     */
+    private synchronized void publishTopology() {
+        List<GaleraNode> activeGaleraNodes = new ArrayList<GaleraNode>(activeNodes.size());
+        List<GaleraNode> steadyGaleraNodes = new ArrayList<GaleraNode>(activeNodes.size());
+        for (String activeNode : activeNodes) {
+            GaleraNode galeraNode = nodes.get(activeNode);
+            if (galeraNode != null) {
+                activeGaleraNodes.add(galeraNode);
+                if (!laggingNodes.contains(activeNode)) {
+                    steadyGaleraNodes.add(galeraNode);
+                }
+            }
+        }
+        topology = new ClusterTopology(topology.version + 1, steadyGaleraNodes.isEmpty() ? activeGaleraNodes : steadyGaleraNodes);
+        writerElection.publishWriterSet(topology);
+        electWriter();
+    }
+
+    /**
+     * Elects the writer in single writer mode, see {@link WriterElection}. The first writer is elected once every seed is
+     * registered, so it is not handed over while the client starts. The write pools follow the result: see
+     * {@link #updateWritePools()}.
+     */
+    private synchronized void electWriter() {
+        if (clientSettings.singleWriter && seedsRegistered) {
+            writerElection.elect(activeGaleraNodes(), System.currentTimeMillis());
+        }
+        updateWritePools();
+    }
+
+    private List<GaleraNode> activeGaleraNodes() {
+        List<GaleraNode> activeGaleraNodes = new ArrayList<GaleraNode>(activeNodes.size());
+        for (String activeNode : activeNodes) {
+            GaleraNode galeraNode = nodes.get(activeNode);
+            if (galeraNode != null) {
+                activeGaleraNodes.add(galeraNode);
+            }
+        }
+        return activeGaleraNodes;
+    }
+
+    /**
+     * With write pools, only the nodes write connections are taken from keep one: the writer set, or the writer and the node
+     * being fenced in as writer in single writer mode. The others close theirs.
+     */
+    private void updateWritePools() {
+        if (writePoolSettings == null) {
+            return;
+        }
+
+        Set<String> writers = writerElection.writers();
+        for (GaleraNode galeraNode : nodes.values()) {
+            if (writers.contains(galeraNode.node)) {
+                galeraNode.openWritePool();
+            } else {
+                galeraNode.closeWritePool();
+            }
+        }
+    }
+
+    /**
+     * Adapts the writer set to the certification conflicts of the active nodes, then publishes it with its write pools.
+     */
+    @VisibleForTesting
+    synchronized void updateWriterSet() {
+        writerElection.updateWriterSet(topology, System.currentTimeMillis());
+        updateWritePools();
+    }
+
+    /**
+     * @return the active nodes write connections are taken from when not in single writer mode
+     */
+    public ClusterTopology getWriterSet() {
+        return writerElection.getWriterSet();
+    }
+
+    /**
+     * @return the node write connections are taken from in single writer mode, or null if there is none
+     */
+    @Nullable
+    public String getWriter() {
+        return writerElection.getWriter();
+    }
+
+    /**
+     * @return the last published snapshot of the active nodes
+     */
+    public ClusterTopology getTopology() {
+        return topology;
+    }
+
+    /**
+     * @return the monitor discovery runs on, shared with other clients when sharedClusterMonitor is enabled
+     */
+    public GaleraClusterMonitor getClusterMonitor() {
+        return monitor;
+    }
+
+    private void quarantine(String node) {
+        GaleraNode galeraNode = nodes.get(node);
+        if (galeraNode != null) {
+            galeraNode.onQuarantine();
+        }
+    }
+
+    private void closeExpiredQuarantines() {
+        for (String downedNode : downedNodes) {
+            GaleraNode galeraNode = nodes.get(downedNode);
+            if (galeraNode != null && galeraNode.isQuarantineExpired(discoverSettings.quarantinePeriod)) {
+                LOG.info("Node {} has been down longer than the quarantine period", downedNode);
+                galeraNode.onDown();
+            }
+        }
+    }
+
     private void closeConnections(String node) {
         GaleraNode galeraNode = nodes.get(node);
         if (galeraNode != null) {
@@ -182,13 +490,17 @@ public class GaleraClient extends AbstractGaleraDataSource {
 
         GaleraStatus status = null;
         try {
-            status = refreshStatus(node);
+            status = refreshStatus(node, false);
         } catch (Exception e) {
             LOG.error("We could not refresh node status for " + node + " so we remove it", e);
             removeNode(node);
             return;
         }
 
+        onStatus(node, status);
+    }
+
+    private void onStatus(String node, GaleraStatus status) {
         if (!status.isPrimary()) {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("On discover - Non primary node {}", node);
@@ -205,9 +517,18 @@ public class GaleraClient extends AbstractGaleraDataSource {
             return;
         }
 
+        commitHistory.onCommitted(status.lastCommitted(), status.observedAt);
+
         Collection<String> discoveredNodes = status.getClusterNodes();
         LOG.trace("Cluster nodes: {}", discoveredNodes);
 
+        Set<String> clusterView = new HashSet<String>(discoveredNodes);
+        Set<String> previousClusterView = clusterViews.put(node, clusterView);
+        if (previousClusterView != null && !previousClusterView.equals(clusterView)) {
+            LOG.info("Incoming addresses of node {} changed from {} to {}", node, previousClusterView, clusterView);
+            pendingReprobes.addAll(Sets.symmetricDifference(previousClusterView, clusterView));
+        }
+
         for (String discoveredNode : discoveredNodes) {
             if (isNewNodeOnCluster(discoveredNode)) {
                 LOG.info("Found new node {}. Actual nodes {}", discoveredNode, nodes.keySet());
@@ -217,23 +538,97 @@ public class GaleraClient extends AbstractGaleraDataSource {
         if (!discoveredNodes.contains(node)) {
             removeNode(node);
         } else {
-            if (!isActive(node) && !(status.isDonor() && discoverSettings.ignoreDonor)) {
+            if (!isActive(node) && !warmingUpNodes.contains(node) && !(status.isDonor() && discoverSettings.ignoreDonor)) {
                 LOG.info("Will activate a discovered node: {}", node);
                 activate(node);
             }
+            updateLagging(node, status);
+            updateWeight(node, status);
+            updateWriterSet();
+            electWriter();
         }
     }
 
-    private GaleraStatus refreshStatus(String node) throws Exception {
-        if (clientSettings.testMode) {
-            return GaleraStatus.buildTestStatusOk(node);
+    private void updateWeight(String node, GaleraStatus status) {
+        if (clientSettings.nodeWeigher == null) {
+            return;
         }
+        Integer weight = clientSettings.nodeWeigher.apply(status);
+        if (weight != null && weight < 0) {
+            LOG.warn("Ignoring negative weight {} the node weigher gave to node {}", weight, node);
+            return;
+        }
+        if (weight != null && weight != getNodeWeight(node)) {
+            setNodeWeight(node, weight);
+        }
+    }
 
+    /**
+     * Sets the relative share of traffic weighted policies, as {@link com.despegar.jdbc.galera.policies.WeightedRoundRobinPolicy},
+     * give to a node. It applies right away and is kept for nodes discovered later or coming back.
+     *
+     * @param node   node name, as in the seeds or in wsrep_incoming_addresses
+     * @param weight zero or more. A node with weight 0 only gets traffic when every node has weight 0.
+     */
+    public void setNodeWeight(@Nonnull String node, int weight) {
+        Preconditions.checkArgument(weight >= 0, "Node weight must be greater or equal than 0. It was: %s", weight);
+        nodeWeights.put(node, weight);
         GaleraNode galeraNode = nodes.get(node);
-        galeraNode.refreshStatus();
+        if (galeraNode != null && galeraNode.getWeight() != weight) {
+            LOG.info("Weight of node {} set to {}", node, weight);
+            galeraNode.setWeight(weight);
+            if (isActive(node)) {
+                publishTopology();
+            }
+        }
+    }
+
+    public int getNodeWeight(@Nonnull String node) {
+        Integer weight = nodeWeights.get(node);
+        return (weight != null) ? weight : GaleraNode.DEFAULT_WEIGHT;
+    }
+
+    /**
+     * Lagging nodes stay active but are left out of the published topology while there is another active node, so traffic
+     * is steered away from a node applying replication slowly or triggering flow control.
+     */
+    private void updateLagging(String node, GaleraStatus status) {
+        boolean lagging = isLagging(status);
+        boolean changed = lagging ? laggingNodes.add(node) : laggingNodes.remove(node);
+        if (changed) {
+            LOG.info("Node {} {} lagging. Recv queue avg: {}, send queue avg: {}, flow control paused: {}", node, lagging ? "is" : "is no longer",
+                     status.localRecvQueueAvg(), status.localSendQueueAvg(), status.flowControlPaused());
+            if (isActive(node)) {
+                publishTopology();
+            }
+        }
+    }
+
+    private boolean isLagging(GaleraStatus status) {
+        return exceeds(status.localRecvQueueAvg(), discoverSettings.maxRecvQueueAvg)
+               || exceeds(status.localSendQueueAvg(), discoverSettings.maxSendQueueAvg)
+               || exceeds(status.flowControlPaused(), discoverSettings.maxFlowControlPaused);
+    }
+
+    private static boolean exceeds(double value, double threshold) {
+        return threshold > 0 && value > threshold;
+    }
+
+    private GaleraStatus refreshStatus(String node, boolean force) throws Exception {
+        GaleraNode galeraNode = nodes.get(node);
+        galeraNode.refreshStatus(force);
         return galeraNode.status();
     }
 
+    /**
+     * Applies a status to the node as if discovery had probed it.
+     */
+    @VisibleForTesting
+    void refreshStatus(String node, GaleraStatus status) {
+        nodes.get(node).refreshStatus(status);
+        onStatus(node, status);
+    }
+
     private boolean isActive(String node) {
         return activeNodes.contains(node);
     }
@@ -244,7 +639,7 @@ public class GaleraClient extends AbstractGaleraDataSource {
 
     private void startDiscovery(long discoverPeriod) {
         if (!clientSettings.testMode) {
-            scheduler.scheduleAtFixedRate(discoverRunnable, 0, discoverPeriod, TimeUnit.MILLISECONDS);
+            discoveryFuture = monitor.scheduler().scheduleAtFixedRate(discoverRunnable, 0, discoverPeriod, TimeUnit.MILLISECONDS);
         }
     }
 
@@ -259,7 +654,9 @@ public class GaleraClient extends AbstractGaleraDataSource {
     private void registerNode(String node) {
         LOG.info("Registering Galera node: {}", node);
         try {
-            nodes.put(node, new GaleraNode(node, galeraDB, poolSettings, internalPoolSettings, clientSettings.testMode));
+            GaleraNode galeraNode = new GaleraNode(node, galeraDB, poolSettings, writePoolSettings, monitor, clientSettings.testMode);
+            galeraNode.setWeight(getNodeWeight(node));
+            nodes.put(node, galeraNode);
             discover(node);
         } catch (Exception e) {
             LOG.error("Could not register node " + node, e);
@@ -269,98 +666,599 @@ public class GaleraClient extends AbstractGaleraDataSource {
 
     @Override
     public Connection getConnection() throws SQLException {
+        return getConnection(null, (ElectionNodePolicy) null);
+    }
+
+    /**
+     * @param electionNodePolicy Policy to choose the node that will get a connection. If it is null, we will use the default policy configured on client.
+     * @return a {@link Connection}
+     * @throws SQLException - if a database access error occurs
+     */
+    public Connection getConnection(ElectionNodePolicy electionNodePolicy) throws SQLException {
+        return getConnection(null, electionNodePolicy);
+    }
+
+    /**
+     * When the chosen node fails to give a connection, discovery is requested in background and the connection is asked to
+     * the other active nodes, up to retriesToGetConnection of them.
+     *
+     * @param consistencyLevel   Set the consistencyLevel needed.
+     * @param electionNodePolicy Policy to choose the node that will get a connection. If it is null, we will use the default policy configured on client.
+     * @return a {@link Connection}
+     * @throws SQLException - if a database access error occurs
+     */
+    public Connection getConnection(ConsistencyLevel consistencyLevel, ElectionNodePolicy electionNodePolicy) throws SQLException {
+        ElectionNodePolicy policy = (electionNodePolicy != null) ? electionNodePolicy : clientSettings.defaultNodeSelectionPolicy;
+        GaleraNode galeraNode;
         try {
-            return selectNode(null).getConnection();
-        } catch (Exception e) {
-            LOG.info("Error getting connection. Forcing discovery...");
-            discovery();
+            galeraNode = selectNode(policy);
+        } catch (RuntimeException e) {
+            requestDiscovery(null);
+            throw e;
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Getting connection [{}] from node {}", policy.getName(), galeraNode.node);
+        }
+        return borrowConnection(topology, galeraNode, consistencyLevel, false);
+    }
+
+    private Connection borrowConnection(ClusterTopology currentTopology, GaleraNode galeraNode, @Nullable ConsistencyLevel consistencyLevel,
+                                        boolean write) throws SQLException {
+        try {
+            return borrowConnection(galeraNode, consistencyLevel, write);
+        } catch (SQLException | RuntimeException e) {
+            LOG.info("Error getting connection from node {}. Requesting discovery...", galeraNode.node);
+            requestDiscovery(galeraNode.node);
+            Connection connection = failover(currentTopology, galeraNode, consistencyLevel, write);
+            if (connection == null) {
+                throw e;
+            }
+            return connection;
+        }
+    }
+
+    public Connection getReadConnection() throws SQLException {
+        return getReadConnection(null);
+    }
+
+    /**
+     * The node is chosen among all the active nodes with the readNodeSelectionPolicy, or the default policy when it is not
+     * set, and the connection is taken from the same pool as the ones of {@link #getConnection()}.
+     *
+     * @param consistencyLevel Set the consistencyLevel needed.
+     * @return a {@link Connection}
+     * @throws SQLException - if a database access error occurs
+     */
+    public Connection getReadConnection(@Nullable ConsistencyLevel consistencyLevel) throws SQLException {
+        return getConnection(consistencyLevel, clientSettings.readNodeSelectionPolicy);
+    }
+
+    public Connection getWriteConnection() throws SQLException {
+        return getWriteConnection(null);
+    }
+
+    /**
+     * The connection is taken from the write pool of the node, when a write pool is configured. In single writer mode the
+     * node is always the elected writer, see {@link #getWriter()}, and there is no failover to other nodes: the connection
+     * fails while the writer is down or a new one is being fenced in. Otherwise the node is chosen among the writer set, see
+     * {@link #getWriterSet()}, with the writeNodeSelectionPolicy, or the default policy when it is not set.
+     *
+     * @param consistencyLevel Set the consistencyLevel needed.
+     * @return a {@link Connection}
+     * @throws SQLException - if a database access error occurs
+     */
+    public Connection getWriteConnection(@Nullable ConsistencyLevel consistencyLevel) throws SQLException {
+        return getWriteConnection(consistencyLevel, null);
+    }
+
+    /**
+     * @param avoidedNode node of the writer set not to choose, unless it is the only one
+     */
+    private Connection getWriteConnection(@Nullable ConsistencyLevel consistencyLevel, @Nullable final String avoidedNode)
+            throws SQLException {
+        if (!clientSettings.singleWriter) {
+            ElectionNodePolicy policy = (clientSettings.writeNodeSelectionPolicy != null) ? clientSettings.writeNodeSelectionPolicy
+                                                                                         : clientSettings.defaultNodeSelectionPolicy;
+            ClusterTopology currentWriterSet = writerElection.getWriterSet();
+            if (avoidedNode != null) {
+                ClusterTopology others = filter(currentWriterSet, new Predicate<GaleraNode>() {
+                    @Override
+                    public boolean apply(GaleraNode galeraNode) {
+                        return !galeraNode.node.equals(avoidedNode);
+                    }
+                });
+                if (!others.isEmpty()) {
+                    currentWriterSet = others;
+                }
+            }
+            GaleraNode galeraNode;
+            try {
+                galeraNode = selectNode(currentWriterSet, policy);
+            } catch (RuntimeException e) {
+                requestDiscovery(null);
+                throw e;
+            }
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Getting write connection [{}] from node {}", policy.getName(), galeraNode.node);
+            }
+            return borrowConnection(currentWriterSet, galeraNode, consistencyLevel, true);
+        }
+
+        GaleraNode galeraNode = writerNode();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Getting write connection from writer {}", galeraNode.node);
+        }
+        try {
+            return borrowConnection(galeraNode, consistencyLevel, true);
+        } catch (SQLException | RuntimeException e) {
+            LOG.info("Error getting connection from writer {}. Requesting discovery...", galeraNode.node);
+            requestDiscovery(galeraNode.node);
+            throw e;
+        }
+    }
+
+    private GaleraNode writerNode() {
+        if (writerElection.isFencingOver(System.currentTimeMillis())) {
+            electWriter();
+        }
+
+        String currentWriter = writerElection.getWriter();
+        GaleraNode galeraNode = (currentWriter == null) ? null : nodes.get(currentWriter);
+        if (galeraNode == null) {
+            String pending = writerElection.getPendingWriter();
+            if (pending != null) {
+                throw new NoActiveNodeException("Node " + pending + " is being fenced in as writer");
+            }
+            requestDiscovery(null);
+            throw new NoActiveNodeException("There is no active node to elect as writer");
+        }
+        return galeraNode;
+    }
+
+    /**
+     * Bounded staleness read: the node is chosen among the active nodes whose replication lag, as last seen by discovery, is
+     * within the given bound. When no node qualifies, or the chosen one fails, the connection is asked with
+     * {@link ConsistencyLevel#SYNC_READS} (CAUSAL_READS_ON on earlier versions), so reads wait for the node to catch up.
+     *
+     * @param lagBound           max lag accepted, in transactions or millis behind the most advanced node.
+     * @param electionNodePolicy Policy to choose the node that will get a connection. If it is null, we will use the default policy configured on client.
+     * @return a {@link Connection}
+     * @throws SQLException - if a database access error occurs
+     */
+    public Connection getConnectionWithinLag(@Nonnull final ReplicationLagBound lagBound, ElectionNodePolicy electionNodePolicy) throws SQLException {
+        return getQualifiedConnection(new Predicate<GaleraNode>() {
+            @Override
+            public boolean apply(GaleraNode galeraNode) {
+                return isWithinLag(galeraNode, lagBound);
+            }
+
+            @Override
+            public String toString() {
+                return lagBound.toString();
+            }
+        }, electionNodePolicy);
+    }
+
+    /**
+     * Read-your-writes: the node is chosen among the active nodes known to have applied the transaction of the token, that is
+     * the node the token was taken on and the nodes whose wsrep_last_committed, as last seen by discovery, reached its seqno.
+     * When no node qualifies, or the chosen one fails, the connection is asked with {@link ConsistencyLevel#SYNC_READS}
+     * (CAUSAL_READS_ON on earlier versions), so only that connection waits for the node to catch up.
+     *
+     * @param causalityToken     token taken with {@link #getCausalityToken(Connection)} after a write.
+     * @param electionNodePolicy Policy to choose the node that will get a connection. If it is null, we will use the default policy configured on client.
+     * @return a {@link Connection}
+     * @throws SQLException - if a database access error occurs
+     */
+    public Connection getConnectionAfter(@Nonnull final CausalityToken causalityToken, ElectionNodePolicy electionNodePolicy) throws SQLException {
+        return getQualifiedConnection(new Predicate<GaleraNode>() {
+            @Override
+            public boolean apply(GaleraNode galeraNode) {
+                if (galeraNode.node.equals(causalityToken.node)) {
+                    return true;
+                }
+                GaleraStatus status = galeraNode.getLastStatus();
+                return status != null && status.lastCommitted() >= causalityToken.seqno;
+            }
+
+            @Override
+            public String toString() {
+                return causalityToken.toString();
+            }
+        }, electionNodePolicy);
+    }
+
+    public Connection getConnectionAfter(@Nonnull CausalityToken causalityToken) throws SQLException {
+        return getConnectionAfter(causalityToken, null);
+    }
+
+    /**
+     * Takes a token of the writes done so far on a connection of this client. Call it after the commit, before closing the
+     * connection. The token may be kept by the caller, for example in its session, and handed to
+     * {@link #getConnectionAfter(CausalityToken, ElectionNodePolicy)} for the following reads.
+     *
+     * @param connection a connection got from this client
+     * @return the wsrep_last_committed seqno of the node of the connection
+     * @throws SQLException - if a database access error occurs
+     */
+    public CausalityToken getCausalityToken(@Nonnull Connection connection) throws SQLException {
+        String node = (connection instanceof InFlightConnection) ? ((InFlightConnection) connection).node : null;
+        PreparedStatement preparedStatement = connection.prepareStatement(QUERY_LAST_COMMITTED);
+        try {
+            ResultSet resultSet = preparedStatement.executeQuery();
+            try {
+                if (!resultSet.next()) {
+                    throw new SQLException("wsrep_last_committed is not available on node " + node);
+                }
+                return new CausalityToken(Long.parseLong(resultSet.getString(2)), node);
+            } finally {
+                resultSet.close();
+            }
+        } finally {
+            preparedStatement.close();
+        }
+    }
+
+    /**
+     * Feeds back an error of a connection of this client, so deadlocks, which galera reports for certification conflicts,
+     * count towards the conflict rate of its node. Errors of commit are counted already.
+     *
+     * @param connection a connection got from this client
+     * @param exception  the error the connection threw
+     */
+    public void recordFailure(@Nonnull Connection connection, @Nonnull SQLException exception) {
+        if (connection instanceof InFlightConnection) {
+            ((InFlightConnection) connection).recordFailure(exception);
+        }
+    }
+
+    /**
+     * Runs the callback in a transaction on a write connection and commits it. When the transaction fails with an error
+     * the retry policy accepts, it is rolled back and run again on a new connection after a backoff, while attempts and
+     * retry budget are left. Failures are fed back as with {@link #recordFailure(Connection, SQLException)}, and a connection
+     * failure asks for the discovery of the node, as the failover of {@link #getWriteConnection()} does.
+     * Getting the connection is part of each attempt: an error the policy accepts is retried the same way, and so is a
+     * {@link NoActiveNodeException}, as while a new writer is being fenced in, since the transaction did not start.
+     *
+     * @param callback    the work of the transaction, which may run more than once
+     * @param retryPolicy when to run the transaction again
+     * @return the result of the callback on the attempt that committed
+     * @throws SQLException - the failure of the last attempt, or one the policy does not retry
+     */
+    public <T> T execute(@Nonnull TransactionCallback<T> callback, @Nonnull RetryPolicy retryPolicy) throws SQLException {
+        String failedNode = null;
+        for (int attempt = 1; ; attempt++) {
+            Connection connection = null;
+            Exception failure;
+            Exception thrown = null;
+            try {
+                connection = getWriteConnection(null, retryPolicy.retryOnAnotherNode ? failedNode : null);
+                return executeInTransaction(connection, callback);
+            } catch (SQLException e) {
+                thrown = e;
+                if (connection != null) {
+                    recordFailure(connection, e);
+                    failedNode = (connection instanceof InFlightConnection) ? ((InFlightConnection) connection).node : null;
+                    if (failedNode != null && (GaleraErrors.isConnectionFailure(e) || GaleraErrors.isNodeNotPrepared(e))) {
+                        LOG.info("Error on a transaction of node {}. Requesting discovery...", failedNode);
+                        requestDiscovery(failedNode);
+                    }
+                }
+                if (attempt >= retryPolicy.maxAttempts || !retryPolicy.isRetryable(e) || !retryPolicy.tryAcquireRetry()) {
+                    throw e;
+                }
+                failure = e;
+            } catch (NoActiveNodeException e) {
+                thrown = e;
+                if (connection != null || attempt >= retryPolicy.maxAttempts || !retryPolicy.tryAcquireRetry()) {
+                    throw e;
+                }
+                failure = e;
+            } catch (RuntimeException e) {
+                thrown = e;
+                throw e;
+            } finally {
+                if (connection != null) {
+                    closeQuietly(connection, thrown);
+                }
+            }
+
+            long backoff = retryPolicy.backoff(attempt);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Attempt {} on node {} failed: {}. Retrying in {} ms", attempt, failedNode, failure.getMessage(), backoff);
+            }
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (failure instanceof SQLException) {
+                    throw (SQLException) failure;
+                }
+                throw (RuntimeException) failure;
+            }
+        }
+    }
+
+    /**
+     * A failure to close is logged and, when the transaction failed, added to its exception, which is the one thrown.
+     */
+    private static void closeQuietly(Connection connection, @Nullable Exception thrown) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            LOG.warn("Could not close the connection of a transaction", e);
+            if (thrown != null) {
+                thrown.addSuppressed(e);
+            }
+        }
+    }
+
+    private static <T> T executeInTransaction(Connection connection, TransactionCallback<T> callback) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        if (autoCommit) {
+            connection.setAutoCommit(false);
+        }
+        try {
+            T result = callback.doInTransaction(connection);
+            connection.commit();
+            return result;
+        } catch (SQLException | RuntimeException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackException) {
+                LOG.debug("Could not roll back the transaction", rollbackException);
+            }
             throw e;
+        } finally {
+            if (autoCommit) {
+                try {
+                    connection.setAutoCommit(true);
+                } catch (SQLException e) {
+                    LOG.debug("Could not restore autocommit", e);
+                }
+            }
+        }
+    }
+
+    private Connection getQualifiedConnection(Predicate<GaleraNode> qualifies, ElectionNodePolicy electionNodePolicy) throws SQLException {
+        ElectionNodePolicy policy = (electionNodePolicy != null) ? electionNodePolicy : clientSettings.defaultNodeSelectionPolicy;
+        ClusterTopology currentTopology = topology;
+        ClusterTopology qualified = filter(currentTopology, qualifies);
+        if (!qualified.isEmpty()) {
+            GaleraNode galeraNode = selectNode(qualified, policy);
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Getting connection [{}] for {} from node {}", policy.getName(), qualifies, galeraNode.node);
+            }
+            try {
+                return borrowConnection(galeraNode, null, false);
+            } catch (SQLException | RuntimeException e) {
+                LOG.info("Error getting connection from node {}. Requesting discovery...", galeraNode.node);
+                requestDiscovery(galeraNode.node);
+            }
+        } else if (LOG.isDebugEnabled()) {
+            LOG.debug("No active node qualifies for {}. Falling back to causal reads", qualifies);
+        }
+
+        return getConnection(causalReadsLevel(currentTopology), policy);
+    }
+
+    /**
+     * @return the same topology when every node qualifies, to avoid building a new one on the common path
+     */
+    private ClusterTopology filter(ClusterTopology currentTopology, Predicate<GaleraNode> qualifies) {
+        List<GaleraNode> candidates = null;
+        for (int i = 0; i < currentTopology.size(); i++) {
+            GaleraNode galeraNode = currentTopology.get(i);
+            boolean qualified = qualifies.apply(galeraNode);
+            if (!qualified && candidates == null) {
+                candidates = new ArrayList<GaleraNode>(currentTopology.size());
+                for (int j = 0; j < i; j++) {
+                    candidates.add(currentTopology.get(j));
+                }
+            } else if (qualified && candidates != null) {
+                candidates.add(galeraNode);
+            }
+        }
+        return (candidates == null) ? currentTopology : ClusterTopology.filteredFrom(currentTopology, candidates);
+    }
+
+    /**
+     * A node whose lag is unknown, because no wsrep_last_committed was seen yet, is not within any bound.
+     */
+    private boolean isWithinLag(GaleraNode galeraNode, ReplicationLagBound lagBound) {
+        GaleraStatus status = galeraNode.getLastStatus();
+        if (status == null) {
+            return false;
+        }
+        long lastCommitted = status.lastCommitted();
+        return lagBound.accepts(commitHistory.lagTransactions(lastCommitted, status.observedAt),
+                                commitHistory.lagMillis(lastCommitted, status.observedAt));
+    }
+
+    private ConsistencyLevel causalReadsLevel(ClusterTopology currentTopology) {
+        GaleraStatus status = currentTopology.isEmpty() ? null : currentTopology.get(0).getLastStatus();
+        return (status == null || status.supportsSyncWait()) ? ConsistencyLevel.SYNC_READS : ConsistencyLevel.CAUSAL_READS_ON;
+    }
+
+    private Connection borrowConnection(GaleraNode galeraNode, @Nullable ConsistencyLevel consistencyLevel, boolean write) throws SQLException {
+        if (write) {
+            return (consistencyLevel != null) ? galeraNode.getWriteConnection(consistencyLevel) : galeraNode.getWriteConnection();
+        }
+        if (consistencyLevel != null) {
+            return galeraNode.getConnection(consistencyLevel);
+        } else {
+            return galeraNode.getConnection();
         }
     }
 
     /**
-     * @param electionNodePolicy Policy to choose the node that will get a connection. If it is null, we will use the default policy configured on client.
-     * @return a {@link Connection}
-     * @throws SQLException - if a database access error occurs
+     * Asks the connection to the nodes of the topology following the failed one, so the callers of a failed node are spread
+     * over the rest of the cluster, or of the writer set.
+     *
+     * @return a connection or null if none of them gave one
      */
-    public Connection getConnection(ElectionNodePolicy electionNodePolicy) throws SQLException {
-        return getConnection(null, electionNodePolicy);
+    @Nullable
+    private Connection failover(ClusterTopology currentTopology, GaleraNode failedNode, @Nullable ConsistencyLevel consistencyLevel,
+                                boolean write) {
+        int failedIndex = -1;
+        for (int i = 0; i < currentTopology.size(); i++) {
+            if (currentTopology.get(i) == failedNode) {
+                failedIndex = i;
+                break;
+            }
+        }
+
+        int candidates = (failedIndex < 0) ? currentTopology.size() : currentTopology.size() - 1;
+        int attempts = Math.min(clientSettings.retriesToGetConnection, candidates);
+        for (int attempt = 1; attempt <= attempts; attempt++) {
+            GaleraNode galeraNode = currentTopology.get((failedIndex + attempt) % currentTopology.size());
+            try {
+                Connection connection = borrowConnection(galeraNode, consistencyLevel, write);
+                LOG.info("Failed over from node {} to node {}", failedNode.node, galeraNode.node);
+                return connection;
+            } catch (Exception e) {
+                LOG.warn("Error getting connection from node {}. Failover {}/{}. Reason {}", galeraNode.node, attempt, attempts, e.toString());
+                requestDiscovery(galeraNode.node);
+            }
+        }
+
+        return null;
     }
 
     /**
-     * @param consistencyLevel   Set the consistencyLevel needed.
-     * @param electionNodePolicy Policy to choose the node that will get a connection. If it is null, we will use the default policy configured on client.
-     * @return a {@link Connection}
-     * @throws SQLException - if a database access error occurs
+     * Non blocking. The failed node is made due and a discovery is triggered on the discovery thread. Requests arriving before
+     * that discovery starts are coalesced into it, so a burst of failures triggers a single discovery.
+     *
+     * @param failedNode node that failed to give a connection, or null when there was no node to ask
      */
-    public Connection getConnection(ConsistencyLevel consistencyLevel, ElectionNodePolicy electionNodePolicy) throws SQLException {
-        ElectionNodePolicy policy = (electionNodePolicy != null) ? electionNodePolicy : clientSettings.defaultNodeSelectionPolicy;
-        GaleraNode galeraNode = selectNode(policy);
-        if (LOG.isDebugEnabled()) {
-            LOG.debug("Getting connection [{}] from node {}", policy.getName(), galeraNode.node);
+    private void requestDiscovery(@Nullable String failedNode) {
+        if (isShutdown) {
+            return;
         }
-        try {
-            if (consistencyLevel != null) {
-                return galeraNode.getConnection(consistencyLevel);
-            } else {
-                return galeraNode.getConnection();
+        if (failedNode != null) {
+            probeSchedule.probeNow(Collections.singleton(failedNode));
+        }
+        if (isDiscoveryRequested.compareAndSet(false, true)) {
+            try {
+                monitor.scheduler().execute(requestedDiscoveryRunnable);
+            } catch (RejectedExecutionException e) {
+                isDiscoveryRequested.set(false);
+                LOG.warn("Discovery could not be requested. Is the client shut down?");
             }
-
-        } catch (Exception e) {
-            LOG.info("Error getting connection. Forcing discovery...");
-            discovery();
-            throw e;
         }
     }
 
     protected GaleraNode selectNode(@Nullable ElectionNodePolicy electionNodePolicy) {
-        return getActiveGaleraNode(1, electionNodePolicy);
+        ElectionNodePolicy policy = (electionNodePolicy != null) ? electionNodePolicy : clientSettings.defaultNodeSelectionPolicy;
+        return selectNode(topology, policy);
     }
 
-    private GaleraNode getActiveGaleraNode(int retry, @Nullable ElectionNodePolicy electionNodePolicy) {
-        if (activeNodes.isEmpty()) {
+    private GaleraNode selectNode(ClusterTopology currentTopology, ElectionNodePolicy policy) {
+        if (currentTopology.isEmpty()) {
             LOG.error("Could not get galera node cause there is no active node");
             throw new NoActiveNodeException();
         }
-        if (retry <= clientSettings.retriesToGetConnection) {
-            try {
-                ElectionNodePolicy policy = (electionNodePolicy != null) ?
-                        electionNodePolicy :
-                        clientSettings.defaultNodeSelectionPolicy;
-                GaleraNode galeraNode = nodes.get(policy.chooseNode(activeNodes));
 
-                return galeraNode != null ? galeraNode : getActiveGaleraNode(++retry, electionNodePolicy);
+        GaleraNode galeraNode = chooseNode(currentTopology, policy);
+        SlowStart slowStart = clientSettings.slowStart;
+        if (slowStart != null && currentTopology.size() > 1) {
+            galeraNode = applySlowStart(slowStart, currentTopology, galeraNode);
+        }
+        return galeraNode;
+    }
+
+    private GaleraNode chooseNode(ClusterTopology currentTopology, ElectionNodePolicy policy) {
+        if (policy instanceof TopologyAwarePolicy) {
+            return ((TopologyAwarePolicy) policy).chooseNode(currentTopology);
+        }
+
+        return getActiveGaleraNode(currentTopology, policy);
+    }
+
+    /**
+     * A node within its slow start window keeps the choice with the probability of its weight. Otherwise another node of the
+     * topology is drawn in proportion to the slow start weights, so the policy is not asked again and its state, as a round
+     * robin counter, only moves once per selection.
+     */
+    private static GaleraNode applySlowStart(SlowStart slowStart, ClusterTopology currentTopology, GaleraNode chosen) {
+        long now = System.currentTimeMillis();
+        double weight = slowStart.weight(now - chosen.getActivatedAt());
+        if (weight >= 1 || ThreadLocalRandom.current().nextDouble() < weight) {
+            return chosen;
+        }
+
+        double[] weights = new double[currentTopology.size()];
+        double totalWeight = 0;
+        for (int i = 0; i < weights.length; i++) {
+            GaleraNode galeraNode = currentTopology.get(i);
+            weights[i] = (galeraNode == chosen) ? 0 : slowStart.weight(now - galeraNode.getActivatedAt());
+            totalWeight += weights[i];
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Node {} is slow starting with weight {}. Drawing among {}", chosen.node, weight, currentTopology.nodeNames());
+        }
+
+        double point = ThreadLocalRandom.current().nextDouble() * totalWeight;
+        for (int i = 0; i < weights.length; i++) {
+            point -= weights[i];
+            if (weights[i] > 0 && point < 0) {
+                return currentTopology.get(i);
+            }
+        }
+        return chosen;
+    }
 
+    /**
+     * Fallback for policies choosing by node name. The name is resolved against the same snapshot the policy was given.
+     */
+    private GaleraNode getActiveGaleraNode(ClusterTopology currentTopology, ElectionNodePolicy policy) {
+        for (int retry = 1; retry <= clientSettings.retriesToGetConnection; retry++) {
+            try {
+                GaleraNode galeraNode = currentTopology.find(policy.chooseNode(currentTopology.nodeNames()));
+                if (galeraNode != null) {
+                    return galeraNode;
+                }
             } catch (Exception exception) {
                 LOG.warn("Error getting active galera node. Retry {}/{}. Reason {}", retry, clientSettings.retriesToGetConnection, exception);
-                return getActiveGaleraNode(++retry, electionNodePolicy);
             }
-        } else {
-            LOG.error("NoHostAvailableException selecting an active galera node. Max attempts reached");
-            throw new NoHostAvailableException(activeNodes);
         }
+
+        LOG.error("NoHostAvailableException selecting an active galera node. Max attempts reached");
+        throw new NoHostAvailableException(currentTopology.nodeNames());
     }
 
     public void shutdown() {
         LOG.info("Shutting down Galera Client...");
 
+        isShutdown = true;
         shutdownDiscoverScheduler();
-        shutdownActiveNodes();
+        shutdownNodes();
+        monitor.unsubscribe(monitorSubscriber);
     }
 
-    private void shutdownActiveNodes() {
+    /**
+     * Downed nodes are shut down too: they keep their status connection and, when quarantined, their connection pool.
+     */
+    private void shutdownNodes() {
         try {
-            for (String activeNode : activeNodes) {
-                shutdownGaleraNode(activeNode);
+            for (String node : nodes.keySet()) {
+                shutdownGaleraNode(node);
             }
         } catch (Exception e) {
-            LOG.warn("Error closing active node pools", e);
+            LOG.warn("Error closing node pools", e);
         }
     }
 
+    /**
+     * The discovery thread and the probers belong to the monitor, which shuts them down when its last client leaves.
+     */
     private void shutdownDiscoverScheduler() {
         try {
-            scheduler.shutdown();
+            if (discoveryFuture != null) {
+                discoveryFuture.cancel(false);
+            }
         } catch (Exception e) {
             LOG.warn("Error closing status scheduler", e);
         }
@@ -396,6 +1294,33 @@ public class GaleraClient extends AbstractGaleraDataSource {
         private int maxConnectionsPerHost;
         private int minConnectionsIdlePerHost = 1;
         private long discoverPeriod;
+        private int discoveryThreads = 1;
+        private long probeTimeout;
+        private long quarantinePeriod;
+        private long healthyProbePeriod;
+        private long maxDownedBackoff;
+        private double maxRecvQueueAvg;
+        private double maxSendQueueAvg;
+        private double maxFlowControlPaused;
+        private long statusConnectionMaxLifetime = TimeUnit.MINUTES.toMillis(30);
+        private boolean sharedClusterMonitor = false;
+        private SlowStart slowStart;
+        private Map<String, Integer> nodeWeights = new HashMap<String, Integer>();
+        private Function<GaleraStatus, Integer> nodeWeigher;
+        private boolean singleWriter = false;
+        private Optional<Long> writerFencingPeriod = Optional.absent();
+        private int writerSetSize;
+        private double maxConflictRate;
+        private long conflictCooldown = TimeUnit.MINUTES.toMillis(1);
+        private int writeMaxConnectionsPerHost;
+        private int writeMinConnectionsIdlePerHost = 1;
+        private Optional<String> writeIsolationLevel = Optional.absent();
+        private ConsistencyLevel writeConsistencyLevel;
+        private ElectionNodePolicy readNodeSelectionPolicy;
+        private ElectionNodePolicy writeNodeSelectionPolicy;
+        private int warmUpConnections;
+        private List<String> warmUpStatements = Collections.emptyList();
+        private long warmUpTimeout = 5000;
         private long connectTimeout;
         private long connectionTimeout;
         private long readTimeout;
@@ -417,19 +1342,41 @@ public class GaleraClient extends AbstractGaleraDataSource {
 
             LOG.info("Creating galera client...");
 
-            ClientSettings clientSettings =
-                    new ClientSettings(
-                            seeds(),
-                            retriesToGetConnection,
-                            listener.or(new GaleraClientLoggingListener()),
-                            nodeSelectionPolicy.or(new RoundRobinPolicy()),
-                            testMode);
+            ClientSettings clientSettings = ClientSettings.newBuilder()
+                    .seeds(seeds())
+                    .retriesToGetConnection(retriesToGetConnection)
+                    .galeraClientListener(listener.or(new GaleraClientLoggingListener()))
+                    .defaultNodeSelectionPolicy(nodeSelectionPolicy.or(new RoundRobinPolicy()))
+                    .testMode(testMode)
+                    .slowStart(slowStart)
+                    .nodeWeights(nodeWeights)
+                    .nodeWeigher(nodeWeigher)
+                    .singleWriter(singleWriter)
+                    .writerFencingPeriod(writerFencingPeriod.or(discoverPeriod))
+                    .readNodeSelectionPolicy(readNodeSelectionPolicy)
+                    .writeNodeSelectionPolicy(writeNodeSelectionPolicy)
+                    .writerSetSize(writerSetSize)
+                    .maxConflictRate(maxConflictRate)
+                    .conflictCooldown(conflictCooldown)
+                    .build();
 
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Creating galera client with settings: {}", clientSettings);
             }
 
-            DiscoverSettings discoverSettings = new DiscoverSettings(discoverPeriod, ignoreDonor);
+            DiscoverSettings discoverSettings = DiscoverSettings.newBuilder()
+                    .discoverPeriod(discoverPeriod)
+                    .ignoreDonor(ignoreDonor)
+                    .discoveryThreads(discoveryThreads)
+                    .probeTimeout(probeTimeout > 0 ? probeTimeout : connectTimeout + readTimeout)
+                    .quarantinePeriod(quarantinePeriod)
+                    .healthyProbePeriod(healthyProbePeriod)
+                    .maxDownedBackoff(maxDownedBackoff)
+                    .maxRecvQueueAvg(maxRecvQueueAvg)
+                    .maxSendQueueAvg(maxSendQueueAvg)
+                    .maxFlowControlPaused(maxFlowControlPaused)
+                    .sharedClusterMonitor(sharedClusterMonitor)
+                    .build();
 
             if (LOG.isDebugEnabled()) {
                 LOG.debug("Creating galera client with discovery settings: {}", discoverSettings);
@@ -456,24 +1403,44 @@ public class GaleraClient extends AbstractGaleraDataSource {
                     .consistencyLevel(consistencyLevel)
                     .metricsEnabled(metricsEnabled)
                     .poolName(poolName)
+                    .warmUpConnections(warmUpConnections)
+                    .warmUpStatements(warmUpStatements)
+                    .warmUpTimeout(warmUpTimeout)
                     .build();
 
+            PoolSettings writePoolSettings = null;
+            if (writeMaxConnectionsPerHost > 0) {
+                writePoolSettings = PoolSettings.newBuilder()
+                        .maxConnectionsPerHost(writeMaxConnectionsPerHost)
+                        .minConnectionsIdlePerHost(writeMinConnectionsIdlePerHost)
+                        .connectTimeout(connectTimeout)
+                        .connectionTimeout(connectionTimeout)
+                        .readTimeout(readTimeout)
+                        .idleTimeout(idleTimeout)
+                        .autocommit(autocommit)
+                        .readOnly(false)
+                        .isolationLevel(writeIsolationLevel.or(isolationLevel))
+                        .consistencyLevel(writeConsistencyLevel)
+                        .metricsEnabled(metricsEnabled)
+                        .poolName(poolName)
+                        .warmUpConnections(warmUpConnections)
+                        .warmUpStatements(warmUpStatements)
+                        .warmUpTimeout(warmUpTimeout)
+                        .build();
+
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Creating galera client with write pool settings: {}", writePoolSettings);
+                }
+            }
+
             PoolSettings internalPoolSettings = PoolSettings.newBuilder()
-                    .maxConnectionsPerHost(8)
-                    .minConnectionsIdlePerHost(4)
                     .connectTimeout(connectTimeout)
-                    .connectionTimeout(connectionTimeout)
                     .readTimeout(readTimeout)
-                    .idleTimeout(idleTimeout)
-                    .autocommit(false)
-                    .readOnly()
-                    .isolationLevel(isolationLevel)
-                    .metricsEnabled(false)
-                    .poolName(poolName)
+                    .maxLifetime(statusConnectionMaxLifetime)
                     .build();
 
 
-            return new GaleraClient(clientSettings, discoverSettings, galeraDB, poolSettings, internalPoolSettings);
+            return new GaleraClient(clientSettings, discoverSettings, galeraDB, poolSettings, writePoolSettings, internalPoolSettings);
         }
 
         private List<String> seeds() {
@@ -601,6 +1568,309 @@ public class GaleraClient extends AbstractGaleraDataSource {
             return discoverPeriod(timeUnit.toMillis(discoverPeriod));
         }
 
+        /**
+         * @param discoveryThreads Max number of nodes probed concurrently on each discovery cycle. Default 1 (sequential probing).
+         * @return Builder instance
+         */
+        public Builder discoveryThreads(int discoveryThreads) {
+            this.discoveryThreads = discoveryThreads;
+            return this;
+        }
+
+        /**
+         * @param probeTimeout Deadline in millis for a single node status probe when discoveryThreads is greater than 1.
+         *                     Default: connectTimeout + readTimeout.
+         * @return Builder instance
+         */
+        public Builder probeTimeout(long probeTimeout) {
+            this.probeTimeout = probeTimeout;
+            return this;
+        }
+
+        public Builder probeTimeout(long probeTimeout, @Nonnull TimeUnit timeUnit) {
+            return probeTimeout(timeUnit.toMillis(probeTimeout));
+        }
+
+        /**
+         * @param quarantinePeriod Time in millis the connection pool of a downed node is kept open, so a node coming back
+         *                         within this period is reactivated with its warm connections. Default 0: the pool is closed
+         *                         as soon as the node is marked as down.
+         * @return Builder instance
+         */
+        public Builder quarantinePeriod(long quarantinePeriod) {
+            this.quarantinePeriod = quarantinePeriod;
+            return this;
+        }
+
+        public Builder quarantinePeriod(long quarantinePeriod, @Nonnull TimeUnit timeUnit) {
+            return quarantinePeriod(timeUnit.toMillis(quarantinePeriod));
+        }
+
+        /**
+         * @param healthyProbePeriod Time in millis between two probes of an active node. Default: discoverPeriod.
+         * @return Builder instance
+         */
+        public Builder healthyProbePeriod(long healthyProbePeriod) {
+            this.healthyProbePeriod = healthyProbePeriod;
+            return this;
+        }
+
+        public Builder healthyProbePeriod(long healthyProbePeriod, @Nonnull TimeUnit timeUnit) {
+            return healthyProbePeriod(timeUnit.toMillis(healthyProbePeriod));
+        }
+
+        /**
+         * @param maxDownedBackoff Max time in millis between two probes of a downed node. Downed nodes back off exponentially
+         *                         (with jitter) from discoverPeriod up to this value. Default: discoverPeriod (no backoff).
+         * @return Builder instance
+         */
+        public Builder maxDownedBackoff(long maxDownedBackoff) {
+            this.maxDownedBackoff = maxDownedBackoff;
+            return this;
+        }
+
+        public Builder maxDownedBackoff(long maxDownedBackoff, @Nonnull TimeUnit timeUnit) {
+            return maxDownedBackoff(timeUnit.toMillis(maxDownedBackoff));
+        }
+
+        /**
+         * @param maxRecvQueueAvg Nodes whose wsrep_local_recv_queue_avg is above this value are lagging: they are left out of
+         *                        the node selection while another active node is not lagging. Default: 0 (disabled).
+         * @return Builder instance
+         */
+        public Builder maxRecvQueueAvg(double maxRecvQueueAvg) {
+            this.maxRecvQueueAvg = maxRecvQueueAvg;
+            return this;
+        }
+
+        /**
+         * @param maxSendQueueAvg Nodes whose wsrep_local_send_queue_avg is above this value are lagging. Default: 0 (disabled).
+         * @return Builder instance
+         */
+        public Builder maxSendQueueAvg(double maxSendQueueAvg) {
+            this.maxSendQueueAvg = maxSendQueueAvg;
+            return this;
+        }
+
+        /**
+         * @param maxFlowControlPaused Nodes whose wsrep_flow_control_paused (fraction of time paused, from 0 to 1) is above this
+         *                             value are lagging. Default: 0 (disabled).
+         * @return Builder instance
+         */
+        public Builder maxFlowControlPaused(double maxFlowControlPaused) {
+            this.maxFlowControlPaused = maxFlowControlPaused;
+            return this;
+        }
+
+        /**
+         * @param statusConnectionMaxLifetime Each node is probed on a single persistent connection, which is reopened after this
+         *                                    many millis. Zero keeps it until it fails. Default: 30 minutes.
+         * @return Builder instance
+         */
+        public Builder statusConnectionMaxLifetime(long statusConnectionMaxLifetime) {
+            this.statusConnectionMaxLifetime = statusConnectionMaxLifetime;
+            return this;
+        }
+
+        public Builder statusConnectionMaxLifetime(long statusConnectionMaxLifetime, @Nonnull TimeUnit timeUnit) {
+            return statusConnectionMaxLifetime(timeUnit.toMillis(statusConnectionMaxLifetime));
+        }
+
+        /**
+         * @param sharedClusterMonitor Share the discovery thread, the status probes and the status connections with the other
+         *                             clients of the JVM having the same jdbcUrlPrefix and seeds, see {@link GaleraClusterMonitor}.
+         *                             Default: false.
+         * @return Builder instance
+         */
+        public Builder sharedClusterMonitor(boolean sharedClusterMonitor) {
+            this.sharedClusterMonitor = sharedClusterMonitor;
+            return this;
+        }
+
+        /**
+         * @param warmUpConnections Connections opened at once when a node is activated, at startup or later, before it gets
+         *                          traffic. It is capped by maxConnectionsPerHost. Default: 0 (no warm-up).
+         * @return Builder instance
+         */
+        public Builder warmUpConnections(int warmUpConnections) {
+            this.warmUpConnections = warmUpConnections;
+            return this;
+        }
+
+        /**
+         * @param warmUpStatements Hot SQL prepared on each warm-up connection, so they are in its statement cache.
+         * @return Builder instance
+         */
+        public Builder warmUpStatements(@Nonnull List<String> warmUpStatements) {
+            this.warmUpStatements = warmUpStatements;
+            return this;
+        }
+
+        public Builder warmUpStatements(String... warmUpStatements) {
+            return warmUpStatements(Arrays.asList(warmUpStatements));
+        }
+
+        /**
+         * @param warmUpTimeout Max time in millis the warm-up of a node can take. The node is activated anyway. Default: 5000.
+         * @return Builder instance
+         */
+        public Builder warmUpTimeout(long warmUpTimeout) {
+            this.warmUpTimeout = warmUpTimeout;
+            return this;
+        }
+
+        /**
+         * @param slowStart Ramp of the traffic share of newly activated nodes, for example
+         *                  {@code SlowStart.linear(30, TimeUnit.SECONDS)}. It applies with any election node policy.
+         *                  Default: null (no ramp).
+         * @return Builder instance
+         */
+        public Builder slowStart(SlowStart slowStart) {
+            this.slowStart = slowStart;
+            return this;
+        }
+
+        /**
+         * @param node   node name, as in the seeds or in wsrep_incoming_addresses
+         * @param weight initial relative share of traffic of the node for weighted policies. Default: 1.
+         * @return Builder instance
+         */
+        public Builder nodeWeight(@Nonnull String node, int weight) {
+            this.nodeWeights.put(node, weight);
+            return this;
+        }
+
+        public Builder nodeWeights(@Nonnull Map<String, Integer> nodeWeights) {
+            this.nodeWeights.putAll(nodeWeights);
+            return this;
+        }
+
+        /**
+         * @param nodeWeigher derives the weight of a node from each of its statuses. A null weight keeps the current one.
+         * @return Builder instance
+         */
+        public Builder nodeWeigher(Function<GaleraStatus, Integer> nodeWeigher) {
+            this.nodeWeigher = nodeWeigher;
+            return this;
+        }
+
+        /**
+         * @param singleWriter Take the connections of {@link GaleraClient#getWriteConnection()} from a single node, the active
+         *                     one with the lowest wsrep_local_index, so writes to hot rows do not fail certification against
+         *                     each other. Default: false.
+         * @return Builder instance
+         */
+        public Builder singleWriter(boolean singleWriter) {
+            this.singleWriter = singleWriter;
+            return this;
+        }
+
+        /**
+         * @param writerFencingPeriod Millis a new writer waits before taking writes in single writer mode. Default: the
+         *                            discover period, so every client has probed the cluster before the writer changes.
+         * @return Builder instance
+         */
+        public Builder writerFencingPeriod(Optional<Long> writerFencingPeriod) {
+            this.writerFencingPeriod = writerFencingPeriod;
+            return this;
+        }
+
+        public Builder writerFencingPeriod(long writerFencingPeriod) {
+            return writerFencingPeriod(Optional.of(writerFencingPeriod));
+        }
+
+        public Builder writerFencingPeriod(long writerFencingPeriod, @Nonnull TimeUnit timeUnit) {
+            return writerFencingPeriod(timeUnit.toMillis(writerFencingPeriod));
+        }
+
+        /**
+         * @param readNodeSelectionPolicy Policy of {@link GaleraClient#getReadConnection()}. Default: the nodeSelectionPolicy.
+         * @return Builder instance
+         */
+        public Builder readNodeSelectionPolicy(ElectionNodePolicy readNodeSelectionPolicy) {
+            this.readNodeSelectionPolicy = readNodeSelectionPolicy;
+            return this;
+        }
+
+        /**
+         * @param writeNodeSelectionPolicy Policy of {@link GaleraClient#getWriteConnection()}, which chooses among the writer
+         *                                 set. Default: the nodeSelectionPolicy.
+         * @return Builder instance
+         */
+        public Builder writeNodeSelectionPolicy(ElectionNodePolicy writeNodeSelectionPolicy) {
+            this.writeNodeSelectionPolicy = writeNodeSelectionPolicy;
+            return this;
+        }
+
+        /**
+         * @param writerSetSize Active nodes write connections are taken from: the first ones by lowest wsrep_local_index, then
+         *                      by name, the same for every client of the cluster. Default: 0 (all of them).
+         * @return Builder instance
+         */
+        public Builder writerSetSize(int writerSetSize) {
+            this.writerSetSize = writerSetSize;
+            return this;
+        }
+
+        /**
+         * @param maxConflictRate Certification conflicts per second, over the active nodes, above which the writer set is
+         *                        halved, down to one node. Conflicts are taken from wsrep_local_cert_failures and
+         *                        wsrep_local_bf_aborts, or from the deadlocks seen by this client. Default: 0 (disabled).
+         * @return Builder instance
+         */
+        public Builder maxConflictRate(double maxConflictRate) {
+            this.maxConflictRate = maxConflictRate;
+            return this;
+        }
+
+        /**
+         * @param conflictCooldown Millis the conflict rate has to stay under half maxConflictRate before a narrowed writer set
+         *                         is doubled back. Default: 1 minute.
+         * @return Builder instance
+         */
+        public Builder conflictCooldown(long conflictCooldown) {
+            this.conflictCooldown = conflictCooldown;
+            return this;
+        }
+
+        public Builder conflictCooldown(long conflictCooldown, @Nonnull TimeUnit timeUnit) {
+            return conflictCooldown(timeUnit.toMillis(conflictCooldown));
+        }
+
+        /**
+         * @param writeMaxConnectionsPerHost Size of a second pool per node write connections are taken from, so reads cannot
+         *                                   starve writes of connections. It is never read only. Default: 0 (write connections
+         *                                   are taken from the same pool as the others).
+         * @return Builder instance
+         */
+        public Builder writeMaxConnectionsPerHost(int writeMaxConnectionsPerHost) {
+            this.writeMaxConnectionsPerHost = writeMaxConnectionsPerHost;
+            return this;
+        }
+
+        public Builder writeMinConnectionsIdlePerHost(int writeMinConnectionsIdlePerHost) {
+            this.writeMinConnectionsIdlePerHost = writeMinConnectionsIdlePerHost;
+            return this;
+        }
+
+        /**
+         * @param writeIsolationLevel Isolation level of the write pool. Default: the isolationLevel.
+         * @return Builder instance
+         */
+        public Builder writeIsolationLevel(String writeIsolationLevel) {
+            this.writeIsolationLevel = Optional.fromNullable(writeIsolationLevel);
+            return this;
+        }
+
+        /**
+         * @param writeConsistencyLevel Consistency level of the connections of the write pool. Default: null (the global one).
+         * @return Builder instance
+         */
+        public Builder writeConsistencyLevel(ConsistencyLevel writeConsistencyLevel) {
+            this.writeConsistencyLevel = writeConsistencyLevel;
+            return this;
+        }
+
         public Builder readTimeout(long timeout) {
             this.readTimeout = timeout;
             return this;
@@ -3,8 +3,15 @@ package com.despegar.jdbc.galera;
 import com.despegar.jdbc.galera.consistency.ConsistencyLevel;
 import com.despegar.jdbc.galera.listener.GaleraClientListener;
 import com.despegar.jdbc.galera.policies.ElectionNodePolicy;
+import com.despegar.jdbc.galera.policies.SlowStart;
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
 public class GaleraClientFactory {
     private boolean testMode;
     private String database;
@@ -16,6 +23,33 @@ public class GaleraClientFactory {
     private int maxConnectionsPerHost;
     private int minConnectionsIdlePerHost;
     private long discoverPeriod;
+    private int discoveryThreads = 1;
+    private long probeTimeout;
+    private long quarantinePeriod;
+    private long healthyProbePeriod;
+    private long maxDownedBackoff;
+    private double maxRecvQueueAvg;
+    private double maxSendQueueAvg;
+    private double maxFlowControlPaused;
+    private long statusConnectionMaxLifetime = TimeUnit.MINUTES.toMillis(30);
+    private boolean sharedClusterMonitor;
+    private SlowStart slowStart;
+    private Map<String, Integer> nodeWeights = Collections.emptyMap();
+    private Function<GaleraStatus, Integer> nodeWeigher;
+    private boolean singleWriter;
+    private Optional<Long> writerFencingPeriod = Optional.absent();
+    private int writerSetSize;
+    private double maxConflictRate;
+    private long conflictCooldown = TimeUnit.MINUTES.toMillis(1);
+    private int writeMaxConnectionsPerHost;
+    private int writeMinConnectionsIdlePerHost = 1;
+    private String writeIsolationLevel;
+    private ConsistencyLevel writeConsistencyLevel;
+    private ElectionNodePolicy readNodeSelectionPolicy;
+    private ElectionNodePolicy writeNodeSelectionPolicy;
+    private int warmUpConnections;
+    private List<String> warmUpStatements = Collections.emptyList();
+    private long warmUpTimeout = 5000;
     private long connectTimeout;
     private long connectionTimeout;
     private long readTimeout;
@@ -34,7 +68,15 @@ public class GaleraClientFactory {
     public GaleraClient getInstance() {
         return new GaleraClient.Builder().jdbcUrlPrefix(jdbcUrlPrefix).jdbcUrlSeparator(jdbcUrlSeparator).database(database).user(user).password(password)
                 .seeds(seeds).poolName(poolName).maxConnectionsPerHost(maxConnectionsPerHost).minConnectionsIdlePerHost(minConnectionsIdlePerHost)
-                .discoverPeriod(discoverPeriod)
+                .discoverPeriod(discoverPeriod).discoveryThreads(discoveryThreads).probeTimeout(probeTimeout)
+                .quarantinePeriod(quarantinePeriod).healthyProbePeriod(healthyProbePeriod).maxDownedBackoff(maxDownedBackoff)
+                .maxRecvQueueAvg(maxRecvQueueAvg).maxSendQueueAvg(maxSendQueueAvg).maxFlowControlPaused(maxFlowControlPaused)
+                .statusConnectionMaxLifetime(statusConnectionMaxLifetime).sharedClusterMonitor(sharedClusterMonitor)
+                .slowStart(slowStart).nodeWeights(nodeWeights).nodeWeigher(nodeWeigher).singleWriter(singleWriter).writerFencingPeriod(writerFencingPeriod).writerSetSize(writerSetSize)
+                .maxConflictRate(maxConflictRate).conflictCooldown(conflictCooldown)
+                .writeMaxConnectionsPerHost(writeMaxConnectionsPerHost).writeMinConnectionsIdlePerHost(writeMinConnectionsIdlePerHost)
+                .writeIsolationLevel(writeIsolationLevel).writeConsistencyLevel(writeConsistencyLevel)
+                .readNodeSelectionPolicy(readNodeSelectionPolicy).writeNodeSelectionPolicy(writeNodeSelectionPolicy).warmUpConnections(warmUpConnections).warmUpStatements(warmUpStatements).warmUpTimeout(warmUpTimeout)
                 .connectionTimeout(connectionTimeout).connectTimeout(connectTimeout).readTimeout(readTimeout).idleTimeout(idleTimeout).ignoreDonor(ignoreDonor)
                 .retriesToGetConnection(retriesToGetConnection).autocommit(autocommit).readOnly(readOnly).isolationLevel(isolationLevel)
                 .consistencyLevel(consistencyLevel).listener(listener).nodeSelectionPolicy(nodeSelectionPolicy).testMode(testMode).metricsEnabled(
@@ -69,6 +111,114 @@ public class GaleraClientFactory {
         this.discoverPeriod = discoverPeriod;
     }
 
+    public void setDiscoveryThreads(int discoveryThreads) {
+        this.discoveryThreads = discoveryThreads;
+    }
+
+    public void setProbeTimeout(long probeTimeout) {
+        this.probeTimeout = probeTimeout;
+    }
+
+    public void setQuarantinePeriod(long quarantinePeriod) {
+        this.quarantinePeriod = quarantinePeriod;
+    }
+
+    public void setHealthyProbePeriod(long healthyProbePeriod) {
+        this.healthyProbePeriod = healthyProbePeriod;
+    }
+
+    public void setMaxDownedBackoff(long maxDownedBackoff) {
+        this.maxDownedBackoff = maxDownedBackoff;
+    }
+
+    public void setMaxRecvQueueAvg(double maxRecvQueueAvg) {
+        this.maxRecvQueueAvg = maxRecvQueueAvg;
+    }
+
+    public void setMaxSendQueueAvg(double maxSendQueueAvg) {
+        this.maxSendQueueAvg = maxSendQueueAvg;
+    }
+
+    public void setMaxFlowControlPaused(double maxFlowControlPaused) {
+        this.maxFlowControlPaused = maxFlowControlPaused;
+    }
+
+    public void setStatusConnectionMaxLifetime(long statusConnectionMaxLifetime) {
+        this.statusConnectionMaxLifetime = statusConnectionMaxLifetime;
+    }
+
+    public void setSharedClusterMonitor(boolean sharedClusterMonitor) {
+        this.sharedClusterMonitor = sharedClusterMonitor;
+    }
+
+    public void setNodeWeights(Map<String, Integer> nodeWeights) {
+        this.nodeWeights = nodeWeights;
+    }
+
+    public void setNodeWeigher(Function<GaleraStatus, Integer> nodeWeigher) {
+        this.nodeWeigher = nodeWeigher;
+    }
+
+    public void setSingleWriter(boolean singleWriter) {
+        this.singleWriter = singleWriter;
+    }
+
+    public void setWriterFencingPeriod(long writerFencingPeriod) {
+        this.writerFencingPeriod = Optional.of(writerFencingPeriod);
+    }
+
+    public void setWriterSetSize(int writerSetSize) {
+        this.writerSetSize = writerSetSize;
+    }
+
+    public void setMaxConflictRate(double maxConflictRate) {
+        this.maxConflictRate = maxConflictRate;
+    }
+
+    public void setConflictCooldown(long conflictCooldown) {
+        this.conflictCooldown = conflictCooldown;
+    }
+
+    public void setWriteMaxConnectionsPerHost(int writeMaxConnectionsPerHost) {
+        this.writeMaxConnectionsPerHost = writeMaxConnectionsPerHost;
+    }
+
+    public void setWriteMinConnectionsIdlePerHost(int writeMinConnectionsIdlePerHost) {
+        this.writeMinConnectionsIdlePerHost = writeMinConnectionsIdlePerHost;
+    }
+
+    public void setWriteIsolationLevel(String writeIsolationLevel) {
+        this.writeIsolationLevel = writeIsolationLevel;
+    }
+
+    public void setWriteConsistencyLevel(ConsistencyLevel writeConsistencyLevel) {
+        this.writeConsistencyLevel = writeConsistencyLevel;
+    }
+
+    public void setReadNodeSelectionPolicy(ElectionNodePolicy readNodeSelectionPolicy) {
+        this.readNodeSelectionPolicy = readNodeSelectionPolicy;
+    }
+
+    public void setWriteNodeSelectionPolicy(ElectionNodePolicy writeNodeSelectionPolicy) {
+        this.writeNodeSelectionPolicy = writeNodeSelectionPolicy;
+    }
+
+    public void setSlowStart(SlowStart slowStart) {
+        this.slowStart = slowStart;
+    }
+
+    public void setWarmUpConnections(int warmUpConnections) {
+        this.warmUpConnections = warmUpConnections;
+    }
+
+    public void setWarmUpStatements(List<String> warmUpStatements) {
+        this.warmUpStatements = warmUpStatements;
+    }
+
+    public void setWarmUpTimeout(long warmUpTimeout) {
+        this.warmUpTimeout = warmUpTimeout;
+    }
+
     public void setConnectTimeout(long connectTimeout) {
         this.connectTimeout = connectTimeout;
     }
@@ -0,0 +1,180 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.discovery.NodeProber;
+import com.despegar.jdbc.galera.discovery.NodeStatusProbe;
+import com.despegar.jdbc.galera.discovery.StatusChannel;
+import com.despegar.jdbc.galera.settings.DiscoverSettings;
+import com.despegar.jdbc.galera.settings.PoolSettings;
+import com.google.common.base.Joiner;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Multiset;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Discovery resources of a galera cluster: the discovery thread, the status probers and one status connection per node.
+ * A client with sharedClusterMonitor enabled shares them with the other clients of the JVM configured with the same
+ * jdbcUrlPrefix and seeds, whatever their database or user, so the cluster is probed once per period instead of once per
+ * client. Each client keeps its own node states, topology and connection pools.
+ * The first client of a cluster sets the credentials and the discovery settings the monitor probes with. A shared status
+ * is reused for half the discover period, and a change of the primary component, state or incoming addresses of a node is
+ * handed to every subscribed client, which probes it right away.
+ */
+public class GaleraClusterMonitor {
+    private static final Logger LOG = LoggerFactory.getLogger(GaleraClusterMonitor.class);
+
+    private static final Map<String, GaleraClusterMonitor> SHARED_MONITORS = new HashMap<String, GaleraClusterMonitor>();
+
+    public interface Subscriber {
+        void onStatusChanged(String node, GaleraStatus status);
+    }
+
+    private final String key;
+    private final GaleraDB galeraDB;
+    private final PoolSettings statusSettings;
+    private final long maxStatusAge;
+    private final ScheduledExecutorService scheduler;
+    private final NodeProber nodeProber;
+    private final Map<String, NodeStatusProbe> probes = new HashMap<String, NodeStatusProbe>();
+    private final Multiset<String> probeUsers = HashMultiset.create();
+    private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<Subscriber>();
+    private final NodeStatusProbe.Listener statusListener = new NodeStatusProbe.Listener() {
+        @Override
+        public void onStatusChanged(String node, GaleraStatus status) {
+            for (Subscriber subscriber : subscribers) {
+                subscriber.onStatusChanged(node, status);
+            }
+        }
+    };
+
+    private GaleraClusterMonitor(String key, GaleraDB galeraDB, PoolSettings statusSettings, DiscoverSettings discoverSettings,
+                                 long maxStatusAge) {
+        this.key = key;
+        this.galeraDB = galeraDB;
+        this.statusSettings = statusSettings;
+        this.maxStatusAge = maxStatusAge;
+        this.scheduler = Executors.newScheduledThreadPool(1, new ThreadFactoryBuilder().setNameFormat("galera-monitor-%d").build());
+        this.nodeProber = new NodeProber(discoverSettings.discoveryThreads, discoverSettings.probeTimeout);
+    }
+
+    /**
+     * @return a monitor of the client alone, which queries the node on every probe
+     */
+    static GaleraClusterMonitor newPrivateMonitor(GaleraDB galeraDB, PoolSettings statusSettings, DiscoverSettings discoverSettings,
+                                                  Subscriber subscriber) {
+        GaleraClusterMonitor monitor = new GaleraClusterMonitor(null, galeraDB, statusSettings, discoverSettings, 0);
+        monitor.subscribers.add(subscriber);
+        return monitor;
+    }
+
+    /**
+     * @return the monitor shared by the clients of the cluster, created on its first subscriber
+     */
+    static GaleraClusterMonitor subscribe(List<String> seeds, GaleraDB galeraDB, PoolSettings statusSettings,
+                                          DiscoverSettings discoverSettings, Subscriber subscriber) {
+        String key = galeraDB.jdbcUrlPrefix + Joiner.on(',').join(new TreeSet<String>(seeds));
+        synchronized (SHARED_MONITORS) {
+            GaleraClusterMonitor monitor = SHARED_MONITORS.get(key);
+            if (monitor == null) {
+                LOG.info("Creating cluster monitor for {}", key);
+                monitor = new GaleraClusterMonitor(key, galeraDB, statusSettings, discoverSettings, discoverSettings.discoverPeriod / 2);
+                SHARED_MONITORS.put(key, monitor);
+            } else {
+                LOG.info("Sharing cluster monitor for {} with {} more clients", key, monitor.subscribers.size());
+            }
+            monitor.subscribers.add(subscriber);
+            return monitor;
+        }
+    }
+
+    /**
+     * The monitor is shut down when its last subscriber leaves.
+     */
+    void unsubscribe(Subscriber subscriber) {
+        if (key == null) {
+            subscribers.remove(subscriber);
+            shutdown();
+            return;
+        }
+
+        synchronized (SHARED_MONITORS) {
+            subscribers.remove(subscriber);
+            if (subscribers.isEmpty()) {
+                LOG.info("Last client of cluster monitor {} left", key);
+                SHARED_MONITORS.remove(key);
+                shutdown();
+            }
+        }
+    }
+
+    private void shutdown() {
+        scheduler.shutdown();
+        nodeProber.shutdown();
+        synchronized (this) {
+            for (NodeStatusProbe probe : probes.values()) {
+                probe.close();
+            }
+            probes.clear();
+            probeUsers.clear();
+        }
+    }
+
+    ScheduledExecutorService scheduler() {
+        return scheduler;
+    }
+
+    NodeProber nodeProber() {
+        return nodeProber;
+    }
+
+    /**
+     * @return the status probe of the node, to be released with {@link #releaseProbe(String)}
+     */
+    synchronized NodeStatusProbe acquireProbe(String node) {
+        NodeStatusProbe probe = probes.get(node);
+        if (probe == null) {
+            StatusChannel statusChannel = new StatusChannel(node, GaleraNode.jdbcUrl(node, galeraDB),
+                                                            GaleraNode.statusProperties(galeraDB, statusSettings), statusSettings.maxLifetime);
+            probe = new NodeStatusProbe(node, statusChannel, maxStatusAge, (key == null) ? null : statusListener);
+            probes.put(node, probe);
+        }
+        probeUsers.add(node);
+        return probe;
+    }
+
+    /**
+     * The status connection of the node is closed once no client uses it.
+     */
+    synchronized void releaseProbe(String node) {
+        if (probeUsers.remove(node, 1) == 1) {
+            NodeStatusProbe probe = probes.remove(node);
+            if (probe != null) {
+                probe.close();
+            }
+        }
+    }
+
+    /**
+     * @return true if this monitor is shared by the clients of the cluster
+     */
+    public boolean isShared() {
+        return key != null;
+    }
+
+    /**
+     * @return clients subscribed to this monitor
+     */
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+}
@@ -2,61 +2,131 @@ package com.despegar.jdbc.galera;
 
 import com.despegar.jdbc.galera.consistency.ConsistencyLevel;
 import com.despegar.jdbc.galera.consistency.ConsistencyLevelSupport;
-import com.despegar.jdbc.galera.consistency.GaleraProxyConnection;
+import com.despegar.jdbc.galera.consistency.SessionConsistencyTracker;
+import com.despegar.jdbc.galera.discovery.NodeStatusProbe;
+import com.despegar.jdbc.galera.discovery.StatusChannel;
 import com.despegar.jdbc.galera.settings.PoolSettings;
+import com.despegar.jdbc.galera.utils.Ewma;
+import com.despegar.jdbc.galera.utils.StripedCounter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.PrintWriter;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.despegar.jdbc.galera.utils.PoolNameHelper.getFullPoolName;
-import static com.despegar.jdbc.galera.utils.PoolNameHelper.getFullStatusPoolName;
+import static com.despegar.jdbc.galera.utils.PoolNameHelper.getFullWritePoolName;
 
 public class GaleraNode {
     private static final Logger LOG = LoggerFactory.getLogger(GaleraNode.class);
 
-    private static final String QUERY_STATUS = "SHOW STATUS where variable_name LIKE 'wsrep_%' or variable_name like 'Threads_connected'; ";
-    private static final String QUERY_GLOBAL_VARIABLES = "SHOW GLOBAL VARIABLES WHERE variable_name in ('wsrep_sync_wait', 'wsrep_causal_reads');";
+    private static final long LATENCY_DECAY_SECONDS = 10;
+    private static final long CONFLICT_RATE_DECAY_SECONDS = 30;
+
+    public static final int DEFAULT_WEIGHT = 1;
 
     public final String node;
     private final GaleraDB galeraDB;
     private final PoolSettings poolSettings;
-    private HikariDataSource statusDataSource;
+    private final PoolSettings writePoolSettings;
+    private final GaleraClusterMonitor monitor;
+    private final NodeStatusProbe statusProbe;
+    private final AtomicBoolean statusProbeReleased = new AtomicBoolean(false);
     private volatile HikariDataSource dataSource;
+    private volatile HikariDataSource writeDataSource;
     private volatile GaleraStatus status;
+    private volatile long quarantinedSince;
+    private volatile long activatedAt;
+    private volatile int weight = DEFAULT_WEIGHT;
+    private final SessionConsistencyTracker sessionConsistencyTracker = new SessionConsistencyTracker();
+    private final StripedCounter inFlightConnections = new StripedCounter();
+    private final Ewma acquireLatency = new Ewma(LATENCY_DECAY_SECONDS, TimeUnit.SECONDS);
+    private final StripedCounter conflicts = new StripedCounter();
+    private final Ewma conflictRate = new Ewma(CONFLICT_RATE_DECAY_SECONDS, TimeUnit.SECONDS);
+    private long countedConflicts;
     private final boolean testMode;
 
+    /**
+     * @param internalPoolSettings settings of the connection the node status is probed on: connect and read timeouts and
+     *                             maxLifetime, the only settings that apply to it.
+     */
     public GaleraNode(String node, GaleraDB galeraDB, PoolSettings poolSettings, PoolSettings internalPoolSettings, boolean testMode) {
         LOG.info("Creating galera node {}", node);
         this.node = node;
         this.galeraDB = galeraDB;
         this.poolSettings = poolSettings;
+        this.writePoolSettings = null;
         this.testMode = testMode;
+        this.monitor = null;
 
         if (!testMode) {
-            HikariConfig hikariConfig = newHikariConfig(getFullStatusPoolName(poolSettings.poolName, node), node, galeraDB, internalPoolSettings);
-            statusDataSource = new HikariDataSource(hikariConfig);
+            StatusChannel statusChannel = new StatusChannel(node, jdbcUrl(node, galeraDB), statusProperties(galeraDB, internalPoolSettings),
+                                                            internalPoolSettings.maxLifetime);
+            statusProbe = new NodeStatusProbe(node, statusChannel, 0, null);
+        } else {
+            statusProbe = null;
         }
     }
 
+    /**
+     * The status is probed on the status connection the monitor keeps for the node, which may be shared with other clients.
+     *
+     * @param writePoolSettings settings of a second pool write connections are taken from, or null to take them from the same
+     *                          pool as the others
+     */
+    GaleraNode(String node, GaleraDB galeraDB, PoolSettings poolSettings, @Nullable PoolSettings writePoolSettings,
+               GaleraClusterMonitor monitor, boolean testMode) {
+        LOG.info("Creating galera node {}", node);
+        this.node = node;
+        this.galeraDB = galeraDB;
+        this.poolSettings = poolSettings;
+        this.writePoolSettings = writePoolSettings;
+        this.testMode = testMode;
+        this.monitor = monitor;
+
+        if (!testMode) {
+            statusProbe = monitor.acquireProbe(node);
+        } else {
+            statusProbe = null;
+        }
+    }
+
+    static String jdbcUrl(String node, GaleraDB galeraDB) {
+        return galeraDB.jdbcUrlPrefix + node + galeraDB.jdbcUrlSeparator + galeraDB.database;
+    }
+
+    static Properties statusProperties(GaleraDB galeraDB, PoolSettings poolSettings) {
+        Properties properties = new Properties();
+        properties.setProperty("user", galeraDB.user);
+        properties.setProperty("password", galeraDB.password);
+        properties.setProperty("connectTimeout", String.valueOf(poolSettings.connectTimeout));
+        properties.setProperty("socketTimeout", String.valueOf(poolSettings.readTimeout));
+        return properties;
+    }
+
     private HikariConfig newHikariConfig(String poolName, String node, GaleraDB galeraDB, PoolSettings poolSettings) {
         HikariConfig config = new HikariConfig();
         config.setPoolName(poolName);
-        config.setJdbcUrl(galeraDB.jdbcUrlPrefix + node + galeraDB.jdbcUrlSeparator + galeraDB.database);
+        config.setJdbcUrl(jdbcUrl(node, galeraDB));
         config.setUsername(galeraDB.user);
         config.setPassword(galeraDB.password);
         config.setConnectionTimeout(poolSettings.connectionTimeout);
         config.setMaximumPoolSize(poolSettings.maxConnectionsPerHost);
         config.setMinimumIdle(poolSettings.minConnectionsIdlePerHost);
         config.setIdleTimeout(poolSettings.idleTimeout);
+        if (poolSettings.maxLifetime > 0) {
+            config.setMaxLifetime(poolSettings.maxLifetime);
+        }
         config.setAutoCommit(poolSettings.autocommit);
         config.setReadOnly(poolSettings.readOnly);
         config.setTransactionIsolation(poolSettings.isolationLevel);
@@ -77,36 +147,38 @@ public class GaleraNode {
     }
 
     public void refreshStatus() throws Exception {
-        Connection connection = statusDataSource.getConnection();
+        refreshStatus(false);
+    }
 
-        try {
-            Map<String, String> statusMap = queryStatus(connection, QUERY_STATUS);
-            Map<String, String> globalVariablesMap = queryStatus(connection, QUERY_GLOBAL_VARIABLES);
-            statusMap.putAll(globalVariablesMap);
+    /**
+     * @param force query the node even if the monitor has a recent status of it, shared with other clients
+     */
+    public void refreshStatus(boolean force) throws Exception {
+        refreshStatus(testMode ? GaleraStatus.buildTestStatusOk(node) : statusProbe.probe(force));
+    }
 
-            status = new GaleraStatus(statusMap);
-        } finally {
-            tryClose(connection);
-        }
+    @VisibleForTesting
+    void refreshStatus(GaleraStatus newStatus) {
+        GaleraStatus previous = status;
+        status = newStatus;
+        updateConflictRate(previous, newStatus);
     }
 
-    private Map<String, String> queryStatus(Connection connection, String query) throws Exception {
-        PreparedStatement preparedStatement = null;
-        ResultSet resultSet = null;
-        try {
-            preparedStatement = connection.prepareStatement(query);
-            resultSet = preparedStatement.executeQuery();
-            Map<String, String> statusMap = new HashMap<String, String>();
-            while (resultSet.next()) {
-                String statusKey = resultSet.getString(1);
-                String statusValue = resultSet.getString(2);
-                statusMap.put(statusKey, statusValue);
-            }
-            return statusMap;
-        } finally {
-            tryClose(resultSet);
-            tryClose(preparedStatement);
+    /**
+     * The conflicts between two statuses are the certification failures and brute force aborts counted by the node, or the
+     * deadlocks seen on the connections of this client when they are more, as when the node does not report the counters.
+     * Both count the same conflicts, so they are not added.
+     */
+    private synchronized void updateConflictRate(GaleraStatus previous, GaleraStatus current) {
+        if (previous == null || current.observedAt <= previous.observedAt) {
+            return;
         }
+        long seen = conflicts.sum();
+        long seenConflicts = seen - countedConflicts;
+        countedConflicts = seen;
+        long reportedConflicts = Math.max(0, current.localCertFailures() + current.localBfAborts()
+                                             - previous.localCertFailures() - previous.localBfAborts());
+        conflictRate.update(Math.max(seenConflicts, reportedConflicts) * 1000.0 / (current.observedAt - previous.observedAt));
     }
 
     public GaleraStatus status() throws Exception {
@@ -116,34 +188,210 @@ public class GaleraNode {
         return status;
     }
 
-    private void tryClose(AutoCloseable connection) throws Exception {
-        if (connection != null) {
-            connection.close();
-        }
+    /**
+     * @return the status taken by the last probe, or null if the node was not probed yet
+     */
+    public GaleraStatus getLastStatus() {
+        return status;
     }
 
     public void shutdown() {
         onDown();
-        if (statusDataSource != null) { statusDataSource.close(); }
+        if (statusProbe != null && statusProbeReleased.compareAndSet(false, true)) {
+            if (monitor != null) {
+                monitor.releaseProbe(node);
+            } else {
+                statusProbe.close();
+            }
+        }
     }
 
     public Connection getConnection() throws SQLException {
-        Connection conn = dataSource.getConnection();
+        return getConnection(dataSource, poolSettings);
+    }
 
-        if (poolSettings.consistencyLevel != null) {
-            LOG.debug("Setting connection level to default configured on client: {} ", poolSettings.consistencyLevel.toString());
-            ConsistencyLevelSupport.set(conn, poolSettings.consistencyLevel.value, status.supportsSyncWait());
+    public Connection getConnection(ConsistencyLevel consistencyLevel) throws SQLException {
+        return getConnection(dataSource, consistencyLevel);
+    }
+
+    /**
+     * @return a connection of the write pool, or of the only pool when the node has no write pool open, as when it just left
+     * the writer set
+     */
+    public Connection getWriteConnection() throws SQLException {
+        HikariDataSource pool = writeDataSource;
+        return (pool == null) ? getConnection() : getConnection(pool, writePoolSettings);
+    }
+
+    public Connection getWriteConnection(ConsistencyLevel consistencyLevel) throws SQLException {
+        HikariDataSource pool = writeDataSource;
+        return (pool == null) ? getConnection(consistencyLevel) : getConnection(pool, consistencyLevel);
+    }
+
+    private Connection getConnection(HikariDataSource pool, PoolSettings settings) throws SQLException {
+        Connection conn = acquireConnection(pool);
+
+        try {
+            if (settings.consistencyLevel != null) {
+                LOG.debug("Setting connection level to default configured on client: {} ", settings.consistencyLevel);
+                sessionConsistencyTracker.ensure(conn, settings.consistencyLevel.value, status);
+            } else {
+                sessionConsistencyTracker.ensureGlobal(conn, status);
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
         }
 
+        return new InFlightConnection(conn, node, inFlightConnections, conflicts);
+    }
+
+    private Connection getConnection(HikariDataSource pool, ConsistencyLevel consistencyLevel) throws SQLException {
+        ConsistencyLevelSupport.validate(consistencyLevel, status.supportsSyncWait());
+        Connection conn = acquireConnection(pool);
+
+        try {
+            sessionConsistencyTracker.ensure(conn, consistencyLevel.value, status);
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+
+        return new InFlightConnection(conn, node, inFlightConnections, conflicts);
+    }
+
+    private Connection acquireConnection(HikariDataSource pool) throws SQLException {
+        long start = System.nanoTime();
+        Connection conn = pool.getConnection();
+        acquireLatency.update(System.nanoTime() - start);
         return conn;
     }
 
-    public Connection getConnection(ConsistencyLevel consistencyLevel) throws SQLException {
-        return GaleraProxyConnection.create(dataSource.getConnection(), consistencyLevel, status);
+    /**
+     * @return connections borrowed from this node and not closed yet
+     */
+    public long getInFlightConnections() {
+        return inFlightConnections.sum();
+    }
+
+    /**
+     * @return moving average in nanos of the time taken to borrow a connection from the pool
+     */
+    public double getAcquireLatency() {
+        return acquireLatency.get();
+    }
+
+    /**
+     * Adds a sample to the acquire latency as if a connection had taken that long to borrow.
+     */
+    @VisibleForTesting
+    public void recordAcquireLatency(long nanos) {
+        acquireLatency.update(nanos);
+    }
+
+    /**
+     * @return moving average in nanos of the status query run by discovery, a sample of the statement latency of the node
+     */
+    public double getStatementLatency() {
+        return (statusProbe != null) ? statusProbe.getLatency() : 0;
+    }
+
+    /**
+     * @return moving average of the certification conflicts per second of this node, updated on each status probe
+     */
+    public double getConflictRate() {
+        return conflictRate.get();
+    }
+
+    /**
+     * Called before the node is published to the active nodes. The warm-up, when enabled, runs in the background.
+     *
+     * @return future completing when the warm-up is done or timed out, so the node can be published once it is warm. It is
+     * already complete when the quarantined pool is reused or warm-up is disabled.
+     */
+    public ListenableFuture<Integer> onActivate() {
+        if (dataSource != null) {
+            LOG.info("Reusing quarantined connection pool of node {}", node);
+            quarantinedSince = 0;
+            activatedAt = System.currentTimeMillis();
+            return Futures.immediateFuture(0);
+        }
+        HikariDataSource newDataSource = new HikariDataSource(newHikariConfig(getFullPoolName(poolSettings.poolName, node), node, galeraDB, poolSettings));
+        dataSource = newDataSource;
+        activatedAt = System.currentTimeMillis();
+        return ConnectionWarmUp.warmUpAsync(node, newDataSource, poolSettings);
+    }
+
+    /**
+     * Opens the write pool, when the client has write pools, and warms it up in the background. Called when the node enters
+     * the writer set.
+     */
+    synchronized void openWritePool() {
+        if (writePoolSettings == null || writeDataSource != null) {
+            return;
+        }
+        LOG.info("Opening write pool of node {}", node);
+        HikariDataSource newWriteDataSource = new HikariDataSource(newHikariConfig(getFullWritePoolName(writePoolSettings.poolName, node), node,
+                                                                                  galeraDB, writePoolSettings));
+        writeDataSource = newWriteDataSource;
+        ConnectionWarmUp.warmUpAsync(node, newWriteDataSource, writePoolSettings);
+    }
+
+    /**
+     * Called when the node leaves the writer set. Write connections borrowed afterwards come from the read pool.
+     */
+    synchronized void closeWritePool() {
+        HikariDataSource pool = writeDataSource;
+        if (pool != null) {
+            LOG.info("Closing write pool of node {}", node);
+            writeDataSource = null;
+            pool.close();
+        }
+    }
+
+    /**
+     * @return whether the write pool is open
+     */
+    @VisibleForTesting
+    boolean hasWritePool() {
+        return writeDataSource != null;
+    }
+
+    /**
+     * @return time in millis the node was last activated, or zero if it never was
+     */
+    public long getActivatedAt() {
+        return activatedAt;
+    }
+
+    /**
+     * @return relative share of traffic given to this node by weighted policies
+     */
+    public int getWeight() {
+        return weight;
+    }
+
+    void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Keeps the connection pool of a downed node instead of closing it, so a reactivation within the quarantine period reuses
+     * its warm connections. No new connections are borrowed from a downed node, the pool only keeps its minimum idle ones.
+     */
+    public void onQuarantine() {
+        if (dataSource != null && quarantinedSince == 0) {
+            LOG.info("Quarantining connection pool of node {}", node);
+            quarantinedSince = System.currentTimeMillis();
+        }
     }
 
-    public void onActivate() {
-        dataSource = new HikariDataSource(newHikariConfig(getFullPoolName(poolSettings.poolName, node), node, galeraDB, poolSettings));
+    /**
+     * @return true when the pool has been quarantined for longer than quarantinePeriod millis
+     */
+    public boolean isQuarantineExpired(long quarantinePeriod) {
+        long since = quarantinedSince;
+        return since != 0 && System.currentTimeMillis() - since >= quarantinePeriod;
     }
 
     public PrintWriter getLogWriter() throws SQLException {
@@ -160,5 +408,7 @@ public class GaleraNode {
             dataSource.close();
             dataSource = null;
         }
+        closeWritePool();
+        quarantinedSince = 0;
     }
 }
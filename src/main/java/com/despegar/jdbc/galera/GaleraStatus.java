@@ -1,10 +1,21 @@
 package com.despegar.jdbc.galera;
 
-import java.util.Arrays;
+import com.despegar.jdbc.galera.consistency.ConsistencyLevel;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+/**
+ * Immutable status of a galera node. The variables returned by the status probe are parsed once, when the status is built,
+ * so reading it on discovery or on every getConnection costs a field access.
+ */
 public class GaleraStatus {
     private static final String INCOMING_ADDRESSES = "wsrep_incoming_addresses";
     private static final String PRIMARY = "Primary";
@@ -13,61 +24,261 @@ public class GaleraStatus {
     private static final String CAUSAL_READS_VARIABLE = "wsrep_causal_reads";
 
     private static final String CLUSTER_STATUS = "wsrep_cluster_status";
-    private static final String STATUS_DONOR = "Donor/Desynced";
-    private static final String STATUS_SYNCED = "Synced";
     private static final String STATE_VARIABLE = "wsrep_local_state_comment";
+    private static final String LOCAL_INDEX = "wsrep_local_index";
 
     private static final String THREADS_CONNECTED = "Threads_connected";
 
-    private final Map<String, String> statusMap;
+    private static final String FLOW_CONTROL_PAUSED = "wsrep_flow_control_paused";
+    private static final String LOCAL_RECV_QUEUE_AVG = "wsrep_local_recv_queue_avg";
+    private static final String LOCAL_SEND_QUEUE_AVG = "wsrep_local_send_queue_avg";
+    private static final String CERT_DEPS_DISTANCE = "wsrep_cert_deps_distance";
+    private static final String LAST_COMMITTED = "wsrep_last_committed";
+    private static final String LOCAL_CERT_FAILURES = "wsrep_local_cert_failures";
+    private static final String LOCAL_BF_ABORTS = "wsrep_local_bf_aborts";
+    private static final String PROVIDER_OPTIONS = "wsrep_provider_options";
+    private static final String SEGMENT_OPTION = "gmcast.segment";
+
+    private static final Splitter ADDRESS_SPLITTER = Splitter.on(',');
+
+    private final boolean primary;
+    private final String stateComment;
+    private final NodeState state;
+    private final List<String> clusterNodes;
+    private final boolean supportsSyncWait;
+    private final String globalConsistencyLevel;
+    private final Integer threadsConnected;
+    private final double flowControlPaused;
+    private final double localRecvQueueAvg;
+    private final double localSendQueueAvg;
+    private final double certDepsDistance;
+    private final long lastCommitted;
+    private final long localCertFailures;
+    private final long localBfAborts;
+    private final int segment;
+    private final int localIndex;
+
+    /**
+     * Time in millis the status was taken.
+     */
+    public final long observedAt;
 
+    /**
+     * @param statusMap status and global variables of the node, by name. Missing numeric variables are read as zero,
+     *                  wsrep_last_committed as -1 and Threads_connected as null.
+     */
     public GaleraStatus(Map<String, String> statusMap) {
-        this.statusMap = statusMap;
+        this(statusMap, System.currentTimeMillis());
     }
 
+    @VisibleForTesting
+    GaleraStatus(Map<String, String> statusMap, long observedAt) {
+        this.observedAt = observedAt;
+        this.primary = PRIMARY.equals(statusMap.get(CLUSTER_STATUS));
+        this.stateComment = statusMap.get(STATE_VARIABLE);
+        this.state = NodeState.fromComment(stateComment);
+
+        String incomingAddresses = statusMap.get(INCOMING_ADDRESSES);
+        this.clusterNodes = (incomingAddresses == null)
+                            ? Collections.<String>emptyList()
+                            : ImmutableList.copyOf(ADDRESS_SPLITTER.split(incomingAddresses));
+
+        String syncWait = statusMap.get(SYNC_WAIT_VARIABLE);
+        this.supportsSyncWait = statusMap.containsKey(SYNC_WAIT_VARIABLE);
+        // Earlier mariadb versions
+        this.globalConsistencyLevel = supportsSyncWait ? syncWait : statusMap.get(CAUSAL_READS_VARIABLE);
+
+        String threadsConnectedValue = statusMap.get(THREADS_CONNECTED);
+        this.threadsConnected = (threadsConnectedValue == null) ? null : Integer.valueOf(threadsConnectedValue);
+        this.flowControlPaused = doubleValue(statusMap, FLOW_CONTROL_PAUSED);
+        this.localRecvQueueAvg = doubleValue(statusMap, LOCAL_RECV_QUEUE_AVG);
+        this.localSendQueueAvg = doubleValue(statusMap, LOCAL_SEND_QUEUE_AVG);
+        this.certDepsDistance = doubleValue(statusMap, CERT_DEPS_DISTANCE);
+
+        String lastCommittedValue = statusMap.get(LAST_COMMITTED);
+        this.lastCommitted = (lastCommittedValue == null) ? -1 : Long.parseLong(lastCommittedValue);
+        this.localCertFailures = longValue(statusMap, LOCAL_CERT_FAILURES);
+        this.localBfAborts = longValue(statusMap, LOCAL_BF_ABORTS);
+        this.segment = segment(statusMap.get(PROVIDER_OPTIONS));
+        this.localIndex = localIndex(statusMap.get(LOCAL_INDEX));
+    }
+
+    /**
+     * A node out of the primary component reports the unsigned -1, 18446744073709551615.
+     */
+    private static int localIndex(String localIndexValue) {
+        if (localIndexValue == null) {
+            return -1;
+        }
+        try {
+            long localIndex = Long.parseLong(localIndexValue.trim());
+            return (localIndex < 0 || localIndex > Integer.MAX_VALUE) ? -1 : (int) localIndex;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * wsrep_provider_options is a list of "name = value;" pairs, only gmcast.segment is read.
+     */
+    private static int segment(String providerOptions) {
+        if (providerOptions == null) {
+            return -1;
+        }
+        int option = providerOptions.indexOf(SEGMENT_OPTION);
+        if (option < 0) {
+            return -1;
+        }
+        int start = providerOptions.indexOf('=', option) + 1;
+        int end = providerOptions.indexOf(';', start);
+        try {
+            return Integer.parseInt(providerOptions.substring(start, (end < 0) ? providerOptions.length() : end).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long longValue(Map<String, String> statusMap, String variable) {
+        String value = statusMap.get(variable);
+        return (value == null) ? 0 : Long.parseLong(value);
+    }
+
+    private static double doubleValue(Map<String, String> statusMap, String variable) {
+        String value = statusMap.get(variable);
+        return (value == null) ? 0 : Double.parseDouble(value);
+    }
+
+    /**
+     * @return the nodes of wsrep_incoming_addresses, as an immutable list
+     */
     public Collection<String> getClusterNodes() {
-        return Arrays.asList(statusMap.get(INCOMING_ADDRESSES).split(","));
+        return clusterNodes;
     }
 
     public boolean isPrimary() {
-        return statusMap.get(CLUSTER_STATUS).equals(PRIMARY);
+        return primary;
     }
 
     public boolean isSynced() {
-        return state().equals(STATUS_SYNCED);
+        return state == NodeState.SYNCED;
     }
 
+    /**
+     * @return wsrep_local_state_comment as reported by the node
+     */
     public String state() {
-        return statusMap.get(STATE_VARIABLE);
+        return stateComment;
+    }
+
+    public NodeState nodeState() {
+        return state;
     }
 
     public boolean isDonor() {
-        return state().equals(STATUS_DONOR);
+        return state == NodeState.DONOR_DESYNCED;
     }
 
     public boolean supportsSyncWait() {
-        return statusMap.keySet().contains(SYNC_WAIT_VARIABLE);
+        return supportsSyncWait;
     }
 
+    /**
+     * @return Threads_connected, or null if it was not reported
+     */
     public Integer threadsConnectedCount() {
-        return Integer.valueOf(statusMap.get(THREADS_CONNECTED));
+        return threadsConnected;
     }
 
-    public String getGlobalConsistencyLevel() {
-        if (supportsSyncWait()) {
-            return statusMap.get(SYNC_WAIT_VARIABLE);
-        }
+    /**
+     * @return fraction of time, from 0 to 1, replication was paused by flow control since the previous status query
+     */
+    public double flowControlPaused() {
+        return flowControlPaused;
+    }
 
-        // Earlier mariadb versions
-        return statusMap.get(CAUSAL_READS_VARIABLE);
+    /**
+     * @return average length of the queue of write sets waiting to be applied on this node since the previous status query
+     */
+    public double localRecvQueueAvg() {
+        return localRecvQueueAvg;
+    }
+
+    /**
+     * @return average length of the queue of write sets waiting to be sent from this node since the previous status query
+     */
+    public double localSendQueueAvg() {
+        return localSendQueueAvg;
+    }
+
+    /**
+     * @return average distance between the lowest and highest seqno that could be applied in parallel
+     */
+    public double certDepsDistance() {
+        return certDepsDistance;
+    }
+
+    /**
+     * @return seqno of the last transaction committed by this node, or -1 if it is unknown
+     */
+    public long lastCommitted() {
+        return lastCommitted;
+    }
+
+    /**
+     * @return transactions of this node that failed certification since the node started
+     */
+    public long localCertFailures() {
+        return localCertFailures;
+    }
+
+    /**
+     * @return transactions of this node aborted by replicated ones (brute force aborts) since the node started
+     */
+    public long localBfAborts() {
+        return localBfAborts;
+    }
+
+    /**
+     * @return gmcast.segment of wsrep_provider_options, the network segment (usually the datacenter) of the node, or -1 if it
+     * is unknown
+     */
+    public int segment() {
+        return segment;
+    }
+
+    /**
+     * @return wsrep_local_index, the index of the node in the current membership of the cluster, or -1 if it is unknown.
+     * Every member of the primary component sees the same indexes.
+     */
+    public int localIndex() {
+        return localIndex;
+    }
+
+    public String getGlobalConsistencyLevel() {
+        return globalConsistencyLevel;
     }
 
     public static GaleraStatus buildTestStatusOk(String node) {
+        return buildTestStatusOk(node, System.currentTimeMillis());
+    }
+
+    @VisibleForTesting
+    static GaleraStatus buildTestStatusOk(String node, long observedAt) {
         Map<String, String> statusMap = new HashMap<String, String>();
         statusMap.put(CLUSTER_STATUS, PRIMARY);
-        statusMap.put(STATE_VARIABLE, STATUS_SYNCED);
+        statusMap.put(STATE_VARIABLE, "Synced");
         statusMap.put(INCOMING_ADDRESSES, node);
-        return new GaleraStatus(statusMap);
+        statusMap.put(SYNC_WAIT_VARIABLE, ConsistencyLevel.SYNC_OFF.value);
+        return new GaleraStatus(statusMap, observedAt);
     }
 
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("primary", primary)
+                .add("state", stateComment)
+                .add("clusterNodes", clusterNodes)
+                .add("lastCommitted", lastCommitted)
+                .toString();
+    }
 }
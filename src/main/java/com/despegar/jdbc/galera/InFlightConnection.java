@@ -0,0 +1,74 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.consistency.DelegatingConnection;
+import com.despegar.jdbc.galera.utils.GaleraErrors;
+import com.despegar.jdbc.galera.utils.StripedCounter;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Keeps the in-flight connection count of a {@link GaleraNode} up to date and remembers the node it was borrowed from:
+ * the count is incremented when the connection is borrowed and decremented once, on the first close. Deadlocks thrown by
+ * commit, or fed back with {@link GaleraClient#recordFailure(Connection, SQLException)}, are counted as conflicts of the
+ * node. Unwrapping goes straight to the pooled connection, this wrapper is not meant to be seen by the callers.
+ */
+final class InFlightConnection extends DelegatingConnection {
+    final String node;
+    private final StripedCounter inFlightConnections;
+    private final StripedCounter conflicts;
+    private boolean closed;
+    private SQLException lastFailure;
+
+    InFlightConnection(Connection delegate, String node, StripedCounter inFlightConnections, StripedCounter conflicts) {
+        super(delegate);
+        this.node = node;
+        this.inFlightConnections = inFlightConnections;
+        this.conflicts = conflicts;
+        inFlightConnections.increment();
+    }
+
+    @Override
+    public void commit() throws SQLException {
+        try {
+            delegate.commit();
+        } catch (SQLException e) {
+            recordFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * The same exception is counted once, even if it is fed back after commit counted it.
+     */
+    void recordFailure(SQLException exception) {
+        if (exception != lastFailure && GaleraErrors.isDeadlock(exception)) {
+            lastFailure = exception;
+            conflicts.increment();
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        if (!closed) {
+            closed = true;
+            inFlightConnections.decrement();
+        }
+        delegate.close();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return closed || delegate.isClosed();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return delegate.isWrapperFor(iface);
+    }
+}
@@ -1,4 +1,11 @@
 package com.despegar.jdbc.galera;
 
 public class NoActiveNodeException extends RuntimeException {
+
+    public NoActiveNodeException() {
+    }
+
+    public NoActiveNodeException(String message) {
+        super(message);
+    }
 }
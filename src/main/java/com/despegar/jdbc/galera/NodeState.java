@@ -0,0 +1,34 @@
+package com.despegar.jdbc.galera;
+
+/**
+ * Galera node state, as reported by wsrep_local_state_comment.
+ */
+public enum NodeState {
+    INITIALIZED,
+    JOINING,
+    DONOR_DESYNCED,
+    JOINED,
+    SYNCED,
+    UNKNOWN;
+
+    /**
+     * "Joining: receiving State Transfer" and similar comments of a joining node are parsed as {@link #JOINING}.
+     */
+    public static NodeState fromComment(String comment) {
+        if (comment == null) {
+            return UNKNOWN;
+        }
+        switch (comment) {
+            case "Synced":
+                return SYNCED;
+            case "Donor/Desynced":
+                return DONOR_DESYNCED;
+            case "Joined":
+                return JOINED;
+            case "Initialized":
+                return INITIALIZED;
+            default:
+                return comment.startsWith("Joining") || comment.startsWith("Waiting") ? JOINING : UNKNOWN;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.utils.GaleraErrors;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When {@link GaleraClient#execute(TransactionCallback, RetryPolicy)} runs a failed transaction again. Certification
+ * conflicts (deadlocks) and nodes not yet prepared for application use are retried, since galera rolled the transaction back.
+ * Connection failures are only retried for idempotent transactions, as the commit may have been applied.
+ * Getting the write connection is retried on the same errors, and when there is no node to write to, as while a new writer
+ * is being fenced in.
+ * Backoffs are drawn at random up to an exponentially growing cap (full jitter), so conflicting clients do not retry in
+ * lockstep. The retries of every execution sharing the policy are limited to retryBudget per budgetWindow, so a contended
+ * cluster does not get a retry storm on top of its load: once the budget is spent, failures are thrown right away.
+ */
+public class RetryPolicy {
+    public final int maxAttempts;
+    public final long baseBackoff;
+    public final long maxBackoff;
+    public final boolean retryOnAnotherNode;
+    public final boolean idempotent;
+    public final int retryBudget;
+    public final long budgetWindow;
+
+    private long windowStart;
+    private int retriesInWindow;
+
+    private RetryPolicy(Builder builder) {
+        Preconditions.checkArgument(builder.maxAttempts > 0, "Max attempts must be greater than 0. It was: %s", builder.maxAttempts);
+        Preconditions.checkArgument(builder.budgetWindow > 0, "Budget window must be greater than 0. It was: %s", builder.budgetWindow);
+        maxAttempts = builder.maxAttempts;
+        baseBackoff = builder.baseBackoff;
+        maxBackoff = Math.max(builder.maxBackoff, builder.baseBackoff);
+        retryOnAnotherNode = builder.retryOnAnotherNode;
+        idempotent = builder.idempotent;
+        retryBudget = builder.retryBudget;
+        budgetWindow = builder.budgetWindow;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
+    }
+
+    /**
+     * @return true if the transaction was rolled back by galera, or may be repeated anyway because it is idempotent
+     */
+    public boolean isRetryable(SQLException exception) {
+        return GaleraErrors.isDeadlock(exception) || GaleraErrors.isNodeNotPrepared(exception)
+               || (idempotent && GaleraErrors.isConnectionFailure(exception));
+    }
+
+    /**
+     * @param attempt the attempt that failed, starting at 1
+     * @return millis to wait before the next attempt, at random up to baseBackoff doubled on each attempt, capped at maxBackoff
+     */
+    public long backoff(int attempt) {
+        long cap = baseBackoff;
+        for (int i = 1; i < attempt && cap < maxBackoff; i++) {
+            cap *= 2;
+        }
+        cap = Math.min(cap, maxBackoff);
+        return (cap <= 0) ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+
+    /**
+     * @return true if a retry is left in the budget of the current window, which is then spent
+     */
+    public boolean tryAcquireRetry() {
+        return tryAcquireRetry(System.currentTimeMillis());
+    }
+
+    @VisibleForTesting
+    synchronized boolean tryAcquireRetry(long now) {
+        if (retryBudget <= 0) {
+            return true;
+        }
+        if (now - windowStart >= budgetWindow) {
+            windowStart = now;
+            retriesInWindow = 0;
+        }
+        if (retriesInWindow >= retryBudget) {
+            return false;
+        }
+        retriesInWindow++;
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("maxAttempts", maxAttempts)
+                .add("baseBackoff", baseBackoff)
+                .add("maxBackoff", maxBackoff)
+                .add("retryOnAnotherNode", retryOnAnotherNode)
+                .add("idempotent", idempotent)
+                .add("retryBudget", retryBudget)
+                .add("budgetWindow", budgetWindow)
+                .toString();
+    }
+
+    public static final class Builder {
+        private int maxAttempts = 3;
+        private long baseBackoff = 10;
+        private long maxBackoff = 1000;
+        private boolean retryOnAnotherNode;
+        private boolean idempotent;
+        private int retryBudget = 100;
+        private long budgetWindow = 1000;
+
+        private Builder() {
+        }
+
+        /**
+         * @param maxAttempts Executions of the transaction, the first one included. Default: 3.
+         * @return Builder instance
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * @param baseBackoff Cap of the backoff after the first failure, doubled on each one. Default: 10 ms.
+         * @return Builder instance
+         */
+        public Builder baseBackoff(long baseBackoff, TimeUnit timeUnit) {
+            this.baseBackoff = timeUnit.toMillis(baseBackoff);
+            return this;
+        }
+
+        /**
+         * @param maxBackoff Cap of every backoff. Default: 1 second.
+         * @return Builder instance
+         */
+        public Builder maxBackoff(long maxBackoff, TimeUnit timeUnit) {
+            this.maxBackoff = timeUnit.toMillis(maxBackoff);
+            return this;
+        }
+
+        /**
+         * @param retryOnAnotherNode Take the connection of a retry from another node of the writer set than the one that
+         *                           failed, when there is another. Not possible in single writer mode. Default: false.
+         * @return Builder instance
+         */
+        public Builder retryOnAnotherNode(boolean retryOnAnotherNode) {
+            this.retryOnAnotherNode = retryOnAnotherNode;
+            return this;
+        }
+
+        /**
+         * @param idempotent The transaction can be applied twice, so it is retried on connection failures too. Default: false.
+         * @return Builder instance
+         */
+        public Builder idempotent(boolean idempotent) {
+            this.idempotent = idempotent;
+            return this;
+        }
+
+        /**
+         * @param retryBudget  Retries allowed per window over every execution with this policy. Zero means no limit.
+         *                     Default: 100.
+         * @param budgetWindow Default: 1 second.
+         * @return Builder instance
+         */
+        public Builder retryBudget(int retryBudget, long budgetWindow, TimeUnit timeUnit) {
+            this.retryBudget = retryBudget;
+            this.budgetWindow = timeUnit.toMillis(budgetWindow);
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.despegar.jdbc.galera;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Work done in one transaction by {@link GaleraClient#execute(TransactionCallback, RetryPolicy)}. It may run more than once,
+ * so it should not have effects outside the connection, or only ones that can be repeated.
+ */
+public interface TransactionCallback<T> {
+
+    /**
+     * @param connection a write connection with autocommit disabled. It is committed when the callback returns.
+     * @return the result handed back by execute
+     * @throws SQLException - if a database access error occurs
+     */
+    T doInTransaction(Connection connection) throws SQLException;
+}
@@ -0,0 +1,250 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.listener.GaleraClientListener;
+import com.despegar.jdbc.galera.listener.WriterElectionListener;
+import com.despegar.jdbc.galera.settings.ClientSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Chooses the nodes write connections are taken from, guarded by its own lock.
+ * <p>
+ * Without single writer mode they are the writer set: the first writerSetSize active nodes in writer election order, fewer
+ * while narrowed by certification conflicts.
+ * <p>
+ * Single writer mode: the writer is the active node with the lowest wsrep_local_index, the nodes whose index is unknown
+ * going last by name, so every client of the cluster elects the same one. A new writer only takes writes once the fencing
+ * period has passed since the previous one went down or stopped being the lowest index. Meanwhile the writes stay on
+ * the previous writer while it is active, and fail when it is not.
+ */
+class WriterElection {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WriterElection.class);
+
+    /**
+     * Lowest wsrep_local_index first, the nodes whose index is unknown last, then by name.
+     */
+    static final Comparator<GaleraNode> WRITER_ORDER = new Comparator<GaleraNode>() {
+        @Override
+        public int compare(GaleraNode node1, GaleraNode node2) {
+            int localIndex1 = localIndex(node1);
+            int localIndex2 = localIndex(node2);
+            if (localIndex1 != localIndex2) {
+                if (localIndex1 < 0 || localIndex2 < 0) {
+                    return (localIndex1 < 0) ? 1 : -1;
+                }
+                return (localIndex1 < localIndex2) ? -1 : 1;
+            }
+            return node1.node.compareTo(node2.node);
+        }
+    };
+
+    private final boolean singleWriter;
+    private final long writerFencingPeriod;
+    private final GaleraClientListener listener;
+    private final int writerSetSize;
+    private final double maxConflictRate;
+    private final long conflictCooldown;
+    private final long discoverPeriod;
+    private volatile String writer;
+    private volatile String pendingWriter;
+    private volatile long writerFencedUntil;
+    private String lastWriter;
+    private volatile ClusterTopology writerSet = ClusterTopology.EMPTY;
+    private int conflictWriterSetSize;
+    private long writerSetChangedAt;
+
+    /**
+     * @param discoverPeriod millis between two narrowings of the writer set by conflicts
+     */
+    WriterElection(ClientSettings clientSettings, long discoverPeriod) {
+        this.singleWriter = clientSettings.singleWriter;
+        this.writerFencingPeriod = clientSettings.writerFencingPeriod;
+        this.listener = clientSettings.galeraClientListener;
+        this.writerSetSize = clientSettings.writerSetSize;
+        this.maxConflictRate = clientSettings.maxConflictRate;
+        this.conflictCooldown = clientSettings.conflictCooldown;
+        this.discoverPeriod = discoverPeriod;
+    }
+
+    /**
+     * Elects the writer among the given active nodes at the given time.
+     */
+    synchronized void elect(Collection<GaleraNode> activeNodes, long now) {
+        GaleraNode candidateNode = null;
+        boolean writerActive = false;
+        for (GaleraNode galeraNode : activeNodes) {
+            writerActive |= galeraNode.node.equals(writer);
+            if (candidateNode == null || WRITER_ORDER.compare(galeraNode, candidateNode) < 0) {
+                candidateNode = galeraNode;
+            }
+        }
+        if (writer != null && !writerActive) {
+            LOG.warn("Writer {} is no longer active. Fencing writes for {} ms", writer, writerFencingPeriod);
+            writer = null;
+            writerFencedUntil = now + writerFencingPeriod;
+        }
+
+        String candidate = (candidateNode == null) ? null : candidateNode.node;
+        if (candidate == null || candidate.equals(writer)) {
+            pendingWriter = null;
+            return;
+        }
+        if (!candidate.equals(pendingWriter)) {
+            pendingWriter = candidate;
+            if (writer != null) {
+                writerFencedUntil = now + writerFencingPeriod;
+            }
+        }
+        if (now < writerFencedUntil) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Node {} will be the writer in {} ms. Current writer: {}", candidate, writerFencedUntil - now, writer);
+            }
+            return;
+        }
+
+        String previousWriter = lastWriter;
+        writer = candidate;
+        lastWriter = candidate;
+        pendingWriter = null;
+        if (listener instanceof WriterElectionListener) {
+            ((WriterElectionListener) listener).onElectingWriter(candidate, previousWriter);
+        }
+    }
+
+    /**
+     * @return true when a node is being fenced in as writer and its fencing period is over, so it takes the writes on the
+     * next election
+     */
+    boolean isFencingOver(long now) {
+        return pendingWriter != null && now >= writerFencedUntil;
+    }
+
+    /**
+     * @return the node write connections are taken from, or null if there is none
+     */
+    @Nullable
+    String getWriter() {
+        return writer;
+    }
+
+    /**
+     * @return the node being fenced in as writer, or null if there is none
+     */
+    @Nullable
+    String getPendingWriter() {
+        return pendingWriter;
+    }
+
+    /**
+     * Adapts the writer set to the certification conflicts of the given topology, then publishes it.
+     */
+    synchronized void updateWriterSet(ClusterTopology topology, long now) {
+        adaptWriterSetToConflicts(topology, now);
+        publishWriterSet(topology);
+    }
+
+    /**
+     * Writes spread over more nodes conflict more, since they only meet at certification. While the conflict rate of the
+     * active nodes is above maxConflictRate the writer set is halved, at most once per discover period, down to one node.
+     * It doubles back towards writerSetSize once the rate has stayed under half the threshold for conflictCooldown.
+     */
+    private void adaptWriterSetToConflicts(ClusterTopology topology, long now) {
+        if (maxConflictRate <= 0 || singleWriter) {
+            return;
+        }
+
+        double conflictRate = 0;
+        for (int i = 0; i < topology.size(); i++) {
+            conflictRate += topology.get(i).getConflictRate();
+        }
+        int configuredSize = configuredWriterSetSize(topology.size());
+        int currentSize = (conflictWriterSetSize > 0) ? Math.min(conflictWriterSetSize, configuredSize) : configuredSize;
+        if (conflictRate > maxConflictRate) {
+            if (currentSize > 1 && now - writerSetChangedAt >= discoverPeriod) {
+                conflictWriterSetSize = Math.max(1, currentSize / 2);
+                writerSetChangedAt = now;
+                LOG.warn("Conflict rate {}/s is above {}/s. Narrowing the writer set to {} nodes", conflictRate, maxConflictRate,
+                         conflictWriterSetSize);
+            }
+        } else if (conflictWriterSetSize > 0 && conflictRate < maxConflictRate / 2 && now - writerSetChangedAt >= conflictCooldown) {
+            int widenedSize = currentSize * 2;
+            conflictWriterSetSize = (widenedSize >= configuredSize) ? 0 : widenedSize;
+            writerSetChangedAt = now;
+            LOG.info("Conflict rate {}/s is back under {}/s. Widening the writer set to {} nodes", conflictRate, maxConflictRate / 2,
+                     Math.min(widenedSize, configuredSize));
+        }
+    }
+
+    private int configuredWriterSetSize(int topologySize) {
+        return (writerSetSize <= 0 || writerSetSize > topologySize) ? topologySize : writerSetSize;
+    }
+
+    /**
+     * Publishes the first writerSetSize nodes of the topology in writer election order, or the whole topology, fewer while
+     * narrowed by conflicts. The writer set is kept while its nodes do not change, so policies caching per topology keep
+     * their state.
+     */
+    synchronized void publishWriterSet(ClusterTopology topology) {
+        int size = configuredWriterSetSize(topology.size());
+        if (conflictWriterSetSize > 0) {
+            size = Math.min(conflictWriterSetSize, size);
+        }
+        if (topology.size() <= size) {
+            writerSet = topology;
+            return;
+        }
+
+        List<GaleraNode> candidates = new ArrayList<GaleraNode>(topology.size());
+        for (int i = 0; i < topology.size(); i++) {
+            candidates.add(topology.get(i));
+        }
+        Collections.sort(candidates, WRITER_ORDER);
+        ClusterTopology newWriterSet = ClusterTopology.filteredFrom(topology, candidates.subList(0, size));
+        if (writerSet.version != newWriterSet.version || !writerSet.nodeNames().equals(newWriterSet.nodeNames())) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Writer set: {}", newWriterSet.nodeNames());
+            }
+            writerSet = newWriterSet;
+        }
+    }
+
+    /**
+     * @return the active nodes write connections are taken from when not in single writer mode
+     */
+    ClusterTopology getWriterSet() {
+        return writerSet;
+    }
+
+    /**
+     * @return the nodes that keep a write pool: the writer set, or the writer and the node being fenced in as writer in
+     * single writer mode
+     */
+    synchronized Set<String> writers() {
+        if (!singleWriter) {
+            return new HashSet<String>(writerSet.nodeNames());
+        }
+        Set<String> writers = new HashSet<String>();
+        if (writer != null) {
+            writers.add(writer);
+        }
+        if (pendingWriter != null) {
+            writers.add(pendingWriter);
+        }
+        return writers;
+    }
+
+    private static int localIndex(GaleraNode galeraNode) {
+        GaleraStatus status = galeraNode.getLastStatus();
+        return (status == null) ? -1 : status.localIndex();
+    }
+}
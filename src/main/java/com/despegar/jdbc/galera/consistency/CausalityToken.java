@@ -0,0 +1,39 @@
+package com.despegar.jdbc.galera.consistency;
+
+import com.google.common.base.MoreObjects;
+
+import javax.annotation.Nullable;
+
+/**
+ * Position of a write in the galera replication stream: the wsrep_last_committed seqno of the node right after the write.
+ * Seqnos are global to the cluster, so a node whose wsrep_last_committed reached it has applied the write.
+ */
+public final class CausalityToken {
+    public final long seqno;
+
+    /**
+     * Node the token was taken on, it has applied the write. Null if it is not known.
+     */
+    @Nullable
+    public final String node;
+
+    public CausalityToken(long seqno, @Nullable String node) {
+        this.seqno = seqno;
+        this.node = node;
+    }
+
+    /**
+     * A token kept without its node, for example passed between services.
+     */
+    public static CausalityToken of(long seqno) {
+        return new CausalityToken(seqno, null);
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("seqno", seqno)
+                .add("node", node)
+                .toString();
+    }
+}
@@ -18,11 +18,15 @@ public class ConsistencyLevelSupport {
 
         try {
             if (supportsSyncWait) {
-                LOG.info("Setting wsrep_sync_wait to {}", consistencyLevel);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Setting wsrep_sync_wait to {}", consistencyLevel);
+                }
                 preparedStatement = connection.prepareStatement(SET_SESSION_SYNC_WAIT);
                 preparedStatement.setInt(1, Integer.valueOf(consistencyLevel));
             } else {
-                LOG.info("Setting wsrep_causal_reads to {}", consistencyLevel);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Setting wsrep_causal_reads to {}", consistencyLevel);
+                }
                 preparedStatement = connection.prepareStatement(SET_SESSION_CAUSAL_READS);
                 preparedStatement.setString(1, consistencyLevel);
             }
@@ -35,4 +39,11 @@ public class ConsistencyLevelSupport {
             }
         }
     }
+
+    public static void validate(ConsistencyLevel consistencyLevel, boolean supportsSyncWait) {
+        if (!supportsSyncWait && consistencyLevel != ConsistencyLevel.CAUSAL_READS_ON && consistencyLevel != ConsistencyLevel.CAUSAL_READS_OFF) {
+            LOG.warn("Your MariaDB version does not support syncWait and you are trying to configure connection consistency level to {}",
+                     consistencyLevel);
+        }
+    }
 }
@@ -14,7 +14,11 @@ import java.sql.SQLException;
  * This proxy is responsible for managing wsrep_sync_wait (wsrep_causal_reads on earlier mariaDB versions) at connection level.
  * When you get a connection, the proxy sets the connection to the desired wsrep_sync_wait level.
  * The proxy releases wsrep_sync_wait value to mariadb global setting when closing connections.
+ *
+ * @deprecated every call goes through reflection. Connections of the client track the level per session with
+ * {@link SessionConsistencyTracker} instead.
  */
+@Deprecated
 public class GaleraProxyConnection implements InvocationHandler {
     private static final Logger LOG = LoggerFactory.getLogger(GaleraProxyConnection.class);
 
@@ -0,0 +1,52 @@
+package com.despegar.jdbc.galera.consistency;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Max replication lag a read accepts, either in transactions or in millis behind the most advanced node seen by discovery.
+ * It is a cheaper alternative to {@link ConsistencyLevel#SYNC_READS}, which makes every read wait for the node to catch up.
+ */
+public final class ReplicationLagBound {
+    private static final long UNBOUNDED = Long.MAX_VALUE;
+
+    public final long maxLagTransactions;
+    public final long maxLagMillis;
+
+    private ReplicationLagBound(long maxLagTransactions, long maxLagMillis) {
+        this.maxLagTransactions = maxLagTransactions;
+        this.maxLagMillis = maxLagMillis;
+    }
+
+    public static ReplicationLagBound transactions(long maxLagTransactions) {
+        Preconditions.checkArgument(maxLagTransactions >= 0, "maxLagTransactions must not be negative");
+        return new ReplicationLagBound(maxLagTransactions, UNBOUNDED);
+    }
+
+    public static ReplicationLagBound millis(long maxLagMillis) {
+        Preconditions.checkArgument(maxLagMillis >= 0, "maxLagMillis must not be negative");
+        return new ReplicationLagBound(UNBOUNDED, maxLagMillis);
+    }
+
+    public static ReplicationLagBound time(long maxLag, TimeUnit timeUnit) {
+        return millis(timeUnit.toMillis(maxLag));
+    }
+
+    public boolean accepts(long lagTransactions, long lagMillis) {
+        return lagTransactions <= maxLagTransactions && lagMillis <= maxLagMillis;
+    }
+
+    @Override
+    public String toString() {
+        MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(this);
+        if (maxLagTransactions != UNBOUNDED) {
+            helper.add("maxLagTransactions", maxLagTransactions);
+        }
+        if (maxLagMillis != UNBOUNDED) {
+            helper.add("maxLagMillis", maxLagMillis);
+        }
+        return helper.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.despegar.jdbc.galera.consistency;
+
+import com.despegar.jdbc.galera.GaleraStatus;
+import com.google.common.collect.MapMaker;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps track of the wsrep_sync_wait (wsrep_causal_reads on earlier mariaDB versions) value of each physical connection of a
+ * pool, so SET SESSION is only sent when the requested level differs from the one the session already has.
+ * Sessions this tracker never touched are assumed to have the global value. Levels are not restored when a connection is
+ * returned to the pool: the next checkout sets the level it needs, if any.
+ * Connections are weakly referenced, so closed physical connections are forgotten once they are collected.
+ */
+public class SessionConsistencyTracker {
+
+    private final ConcurrentMap<Connection, String> sessionLevels = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * @param connection a connection from the pool, usually a pool proxy around the physical connection
+     * @param consistencyLevel level needed by this checkout
+     */
+    public void ensure(Connection connection, String consistencyLevel, GaleraStatus status) throws SQLException {
+        Connection physicalConnection = physicalConnection(connection);
+        String sessionLevel = sessionLevels.get(physicalConnection);
+        if (consistencyLevel.equals(sessionLevel) || (sessionLevel == null && consistencyLevel.equals(status.getGlobalConsistencyLevel()))) {
+            return;
+        }
+
+        set(connection, physicalConnection, consistencyLevel, status.supportsSyncWait());
+    }
+
+    /**
+     * Sets the global level back only if this session was changed on a previous checkout.
+     */
+    public void ensureGlobal(Connection connection, GaleraStatus status) throws SQLException {
+        Connection physicalConnection = physicalConnection(connection);
+        String sessionLevel = sessionLevels.get(physicalConnection);
+        if (sessionLevel == null) {
+            return;
+        }
+
+        String globalLevel = status.getGlobalConsistencyLevel();
+        if (globalLevel == null || globalLevel.equals(sessionLevel)) {
+            return;
+        }
+
+        set(connection, physicalConnection, globalLevel, status.supportsSyncWait());
+    }
+
+    private void set(Connection connection, Connection physicalConnection, String consistencyLevel, boolean supportsSyncWait) throws SQLException {
+        try {
+            ConsistencyLevelSupport.set(connection, consistencyLevel, supportsSyncWait);
+            sessionLevels.put(physicalConnection, consistencyLevel);
+        } catch (SQLException e) {
+            // We do not know the session value anymore
+            sessionLevels.remove(physicalConnection);
+            throw e;
+        }
+    }
+
+    private static Connection physicalConnection(Connection connection) {
+        try {
+            if (connection.isWrapperFor(Connection.class)) {
+                return connection.unwrap(Connection.class);
+            }
+        } catch (SQLException e) {
+            // Not a wrapper
+        }
+        return connection;
+    }
+}
@@ -0,0 +1,102 @@
+package com.despegar.jdbc.galera.discovery;
+
+import java.util.Arrays;
+
+/**
+ * Keeps when discovery first saw the cluster reach each wsrep_last_committed seqno, so the lag of a node can be told both in
+ * transactions and in millis. Lag in millis is how long before the node status was taken the cluster had already committed
+ * a transaction the node had not: it is only as precise as the probe period.
+ * Lags are estimates from status probes taken at different times, not an exact measure.
+ * Updates come from discovery. Reads are lock-free on an immutable snapshot.
+ */
+public class CommitHistory {
+    public static final long UNKNOWN = Long.MAX_VALUE;
+    private static final int DEFAULT_MAX_ENTRIES = 256;
+
+    private final int maxEntries;
+    private volatile Entries entries = new Entries(new long[0], new long[0]);
+
+    public CommitHistory() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    CommitHistory(int maxEntries) {
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * @param lastCommitted wsrep_last_committed of a node
+     * @param observedAt    time in millis the node status was taken
+     */
+    public synchronized void onCommitted(long lastCommitted, long observedAt) {
+        Entries current = entries;
+        int size = current.seqnos.length;
+        if (lastCommitted < 0 || (size > 0 && lastCommitted <= current.seqnos[size - 1])) {
+            return;
+        }
+
+        int from = (size == maxEntries) ? 1 : 0;
+        long[] seqnos = Arrays.copyOfRange(current.seqnos, from, size + 1);
+        long[] observedAts = Arrays.copyOfRange(current.observedAts, from, size + 1);
+        seqnos[seqnos.length - 1] = lastCommitted;
+        observedAts[observedAts.length - 1] = observedAt;
+        entries = new Entries(seqnos, observedAts);
+    }
+
+    /**
+     * @return highest seqno seen, or -1 if none was seen yet
+     */
+    public long head() {
+        Entries current = entries;
+        int size = current.seqnos.length;
+        return (size == 0) ? -1 : current.seqnos[size - 1];
+    }
+
+    /**
+     * The node is compared with the cluster as it was when its status was taken, not with seqnos seen by later probes,
+     * which a busy cluster always has.
+     *
+     * @return transactions the cluster had committed and the node had not when its status was taken, or {@link #UNKNOWN}
+     */
+    public long lagTransactions(long lastCommitted, long observedAt) {
+        Entries current = entries;
+        if (lastCommitted < 0) {
+            return UNKNOWN;
+        }
+        for (int i = current.seqnos.length - 1; i >= 0; i--) {
+            if (current.observedAts[i] <= observedAt) {
+                return Math.max(0, current.seqnos[i] - lastCommitted);
+            }
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * @return millis the node was behind when its status was taken, or {@link #UNKNOWN}
+     */
+    public long lagMillis(long lastCommitted, long observedAt) {
+        Entries current = entries;
+        if (lastCommitted < 0 || current.seqnos.length == 0) {
+            return UNKNOWN;
+        }
+
+        int index = Arrays.binarySearch(current.seqnos, lastCommitted + 1);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        if (index == current.seqnos.length) {
+            return 0;
+        }
+        return Math.max(0, observedAt - current.observedAts[index]);
+    }
+
+    private static final class Entries {
+        private final long[] seqnos;
+        private final long[] observedAts;
+
+        private Entries(long[] seqnos, long[] observedAts) {
+            this.seqnos = seqnos;
+            this.observedAts = observedAts;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.despegar.jdbc.galera.discovery;
+
+import com.google.common.base.MoreObjects;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Aggregated probe results of one discovery cycle. Decisions about activating or marking nodes as down are taken from this
+ * result once all probes have finished (or reached their deadline).
+ */
+public class DiscoveryCycleResult {
+    private final Map<String, ProbeResult> results;
+    public final long elapsedMillis;
+
+    public DiscoveryCycleResult(Map<String, ProbeResult> results, long elapsedMillis) {
+        this.results = Collections.unmodifiableMap(results);
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public Collection<ProbeResult> results() {
+        return results.values();
+    }
+
+    public ProbeResult get(String node) {
+        return results.get(node);
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("elapsedMillis", elapsedMillis)
+                .add("results", results.values())
+                .toString();
+    }
+}
@@ -0,0 +1,152 @@
+package com.despegar.jdbc.galera.discovery;
+
+import com.despegar.jdbc.galera.GaleraStatus;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs the status probes of a discovery cycle.
+ * With a single thread the probes run one after the other on the caller thread (the classic behaviour). With more threads the
+ * probes run concurrently on a bounded executor, and each probe has its own deadline measured from the moment it starts, so a
+ * blackholed node can not hold up the status of the healthy ones.
+ */
+public class NodeProber {
+    private static final Logger LOG = LoggerFactory.getLogger(NodeProber.class);
+
+    private final ExecutorService executor;
+    private final long probeTimeoutNanos;
+
+    /**
+     * @param threads      Max number of concurrent probes. 1 means sequential probing on the caller thread.
+     * @param probeTimeout Max time in millis a single probe can take. Zero or negative means no deadline.
+     */
+    public NodeProber(int threads, long probeTimeout) {
+        this.executor = (threads > 1) ?
+                Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("galera-discovery-%d").setDaemon(true).build()) :
+                null;
+        this.probeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(probeTimeout);
+    }
+
+    public DiscoveryCycleResult probe(Map<String, Callable<GaleraStatus>> probes) {
+        long cycleStart = System.nanoTime();
+        Map<String, ProbeResult> results = (executor == null) ? probeSequentially(probes) : probeConcurrently(probes);
+        return new DiscoveryCycleResult(results, elapsedMillis(cycleStart));
+    }
+
+    private Map<String, ProbeResult> probeSequentially(Map<String, Callable<GaleraStatus>> probes) {
+        Map<String, ProbeResult> results = new LinkedHashMap<String, ProbeResult>();
+        for (Map.Entry<String, Callable<GaleraStatus>> probe : probes.entrySet()) {
+            long start = System.nanoTime();
+            try {
+                results.put(probe.getKey(), ProbeResult.success(probe.getKey(), probe.getValue().call(), elapsedMillis(start)));
+            } catch (Exception e) {
+                results.put(probe.getKey(), ProbeResult.failure(probe.getKey(), e, elapsedMillis(start)));
+            }
+        }
+        return results;
+    }
+
+    private Map<String, ProbeResult> probeConcurrently(Map<String, Callable<GaleraStatus>> probes) {
+        Map<String, TimedProbe> timedProbes = new LinkedHashMap<String, TimedProbe>();
+        Map<String, Future<GaleraStatus>> futures = new LinkedHashMap<String, Future<GaleraStatus>>();
+        for (Map.Entry<String, Callable<GaleraStatus>> probe : probes.entrySet()) {
+            TimedProbe timedProbe = new TimedProbe(probe.getValue());
+            timedProbes.put(probe.getKey(), timedProbe);
+            futures.put(probe.getKey(), executor.submit(timedProbe));
+        }
+
+        Map<String, ProbeResult> results = new LinkedHashMap<String, ProbeResult>();
+        for (Map.Entry<String, Future<GaleraStatus>> future : futures.entrySet()) {
+            String node = future.getKey();
+            results.put(node, await(node, future.getValue(), timedProbes.get(node)));
+        }
+        return results;
+    }
+
+    private ProbeResult await(String node, Future<GaleraStatus> future, TimedProbe timedProbe) {
+        while (true) {
+            try {
+                if (probeTimeoutNanos <= 0 || future.isDone()) {
+                    return ProbeResult.success(node, future.get(), timedProbe.elapsedMillis());
+                }
+
+                long startedAt = timedProbe.startedAt;
+                long waitNanos = (startedAt == 0) ? probeTimeoutNanos : startedAt + probeTimeoutNanos - System.nanoTime();
+                if (waitNanos <= 0) {
+                    return timedOut(node, future, timedProbe);
+                }
+                return ProbeResult.success(node, future.get(waitNanos, TimeUnit.NANOSECONDS), timedProbe.elapsedMillis());
+
+            } catch (TimeoutException e) {
+                // The probe may have been queued behind others: its deadline only counts once it has started
+                if (timedProbe.startedAt != 0 && System.nanoTime() - timedProbe.startedAt >= probeTimeoutNanos) {
+                    return timedOut(node, future, timedProbe);
+                }
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                Exception failure = (cause instanceof Exception) ? (Exception) cause : e;
+                return ProbeResult.failure(node, failure, timedProbe.elapsedMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                return ProbeResult.failure(node, e, timedProbe.elapsedMillis());
+            }
+        }
+    }
+
+    private ProbeResult timedOut(String node, Future<GaleraStatus> future, TimedProbe timedProbe) {
+        future.cancel(true);
+        LOG.warn("Status probe on node {} timed out after {} ms", node, timedProbe.elapsedMillis());
+        return ProbeResult.timeout(node, timedProbe.elapsedMillis());
+    }
+
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static final class TimedProbe implements Callable<GaleraStatus> {
+        private final Callable<GaleraStatus> delegate;
+        private volatile long startedAt;
+        private volatile long finishedAt;
+
+        private TimedProbe(Callable<GaleraStatus> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public GaleraStatus call() throws Exception {
+            startedAt = System.nanoTime();
+            try {
+                return delegate.call();
+            } finally {
+                finishedAt = System.nanoTime();
+            }
+        }
+
+        private long elapsedMillis() {
+            long started = startedAt;
+            long finished = finishedAt;
+            if (started == 0) {
+                return 0;
+            }
+            return (finished == 0) ? NodeProber.elapsedMillis(started) : TimeUnit.NANOSECONDS.toMillis(finished - started);
+        }
+    }
+}
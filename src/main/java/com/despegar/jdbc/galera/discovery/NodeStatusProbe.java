@@ -0,0 +1,85 @@
+package com.despegar.jdbc.galera.discovery;
+
+import com.despegar.jdbc.galera.GaleraStatus;
+import com.despegar.jdbc.galera.utils.Ewma;
+
+import javax.annotation.Nullable;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Probes the status of a galera node on its {@link StatusChannel}. A status taken less than maxStatusAge millis ago is handed
+ * out again instead of querying the node, so the clients sharing a probe query each node once per period. Forced probes,
+ * as the ones after a failed checkout, always query the node.
+ */
+public class NodeStatusProbe {
+    private static final long LATENCY_DECAY_SECONDS = 10;
+
+    public interface Listener {
+        /**
+         * Called on the probing thread when the primary component, the state or the incoming addresses of a node changed.
+         */
+        void onStatusChanged(String node, GaleraStatus status);
+    }
+
+    private final String node;
+    private final StatusChannel statusChannel;
+    private final long maxStatusAge;
+    private final Listener listener;
+    private final StatusQuery statusQuery = new StatusQuery();
+    private final Ewma latency = new Ewma(LATENCY_DECAY_SECONDS, TimeUnit.SECONDS);
+    private volatile GaleraStatus status;
+
+    /**
+     * @param maxStatusAge time in millis a status is reused. Zero means every probe queries the node.
+     */
+    public NodeStatusProbe(String node, StatusChannel statusChannel, long maxStatusAge, @Nullable Listener listener) {
+        this.node = node;
+        this.statusChannel = statusChannel;
+        this.maxStatusAge = maxStatusAge;
+        this.listener = listener;
+    }
+
+    public GaleraStatus probe() throws SQLException {
+        return probe(false);
+    }
+
+    /**
+     * @param force query the node even if the last status is recent enough to be reused
+     */
+    public synchronized GaleraStatus probe(boolean force) throws SQLException {
+        GaleraStatus previous = status;
+        if (!force && previous != null && maxStatusAge > 0 && System.currentTimeMillis() - previous.observedAt < maxStatusAge) {
+            return previous;
+        }
+
+        long start = System.nanoTime();
+        Map<String, String> statusMap = statusChannel.query(statusQuery);
+        latency.update(System.nanoTime() - start);
+
+        GaleraStatus current = new GaleraStatus(statusMap);
+        status = current;
+        if (listener != null && previous != null && hasChanged(previous, current)) {
+            listener.onStatusChanged(node, current);
+        }
+        return current;
+    }
+
+    private static boolean hasChanged(GaleraStatus previous, GaleraStatus current) {
+        return previous.isPrimary() != current.isPrimary()
+               || previous.nodeState() != current.nodeState()
+               || !previous.getClusterNodes().equals(current.getClusterNodes());
+    }
+
+    /**
+     * @return moving average in nanos of the status query, a sample of the statement latency of the node
+     */
+    public double getLatency() {
+        return latency.get();
+    }
+
+    public void close() {
+        statusChannel.close();
+    }
+}
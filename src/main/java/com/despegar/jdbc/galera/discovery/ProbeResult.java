@@ -0,0 +1,50 @@
+package com.despegar.jdbc.galera.discovery;
+
+import com.despegar.jdbc.galera.GaleraStatus;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Optional;
+
+/**
+ * Outcome of probing the status of a single galera node during a discovery cycle.
+ */
+public class ProbeResult {
+    public final String node;
+    public final Optional<GaleraStatus> status;
+    public final Optional<Exception> failure;
+    public final boolean timedOut;
+    public final long elapsedMillis;
+
+    private ProbeResult(String node, Optional<GaleraStatus> status, Optional<Exception> failure, boolean timedOut, long elapsedMillis) {
+        this.node = node;
+        this.status = status;
+        this.failure = failure;
+        this.timedOut = timedOut;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public static ProbeResult success(String node, GaleraStatus status, long elapsedMillis) {
+        return new ProbeResult(node, Optional.of(status), Optional.<Exception>absent(), false, elapsedMillis);
+    }
+
+    public static ProbeResult failure(String node, Exception failure, long elapsedMillis) {
+        return new ProbeResult(node, Optional.<GaleraStatus>absent(), Optional.of(failure), false, elapsedMillis);
+    }
+
+    public static ProbeResult timeout(String node, long elapsedMillis) {
+        return new ProbeResult(node, Optional.<GaleraStatus>absent(), Optional.<Exception>absent(), true, elapsedMillis);
+    }
+
+    public boolean isSuccess() {
+        return status.isPresent();
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("node", node)
+                .add("success", isSuccess())
+                .add("timedOut", timedOut)
+                .add("elapsedMillis", elapsedMillis)
+                .toString();
+    }
+}
@@ -0,0 +1,103 @@
+package com.despegar.jdbc.galera.discovery;
+
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which nodes are probed on each discovery tick.
+ * Healthy nodes are probed every healthyProbePeriod. Downed nodes back off exponentially, starting at the discover period and
+ * up to maxDownedBackoff, with jitter so the clients of a fleet do not probe a dead node in lockstep.
+ * Nodes without a schedule (new or just registered) are always due. Nodes made due with {@link #probeNow(Collection)} are
+ * forced: their next probe skips any shared status cache.
+ */
+public class ProbeSchedule {
+    private final long discoverPeriod;
+    private final long healthyProbePeriod;
+    private final long maxDownedBackoff;
+    private final ConcurrentMap<String, NodeSchedule> schedules = new ConcurrentHashMap<String, NodeSchedule>();
+
+    public ProbeSchedule(long discoverPeriod, long healthyProbePeriod, long maxDownedBackoff) {
+        this.discoverPeriod = discoverPeriod;
+        this.healthyProbePeriod = Math.max(healthyProbePeriod, discoverPeriod);
+        this.maxDownedBackoff = Math.max(maxDownedBackoff, discoverPeriod);
+    }
+
+    /**
+     * A node is due if its next probe falls before the middle of the next tick, so a node probed every tick is not skipped
+     * because the scheduler fired a bit early.
+     */
+    public boolean isDue(String node, long now) {
+        NodeSchedule schedule = schedules.get(node);
+        return schedule == null || schedule.nextProbe <= now + discoverPeriod / 2;
+    }
+
+    /**
+     * @return true if the node was made due by {@link #probeNow(Collection)} and was not probed since
+     */
+    public boolean isForced(String node) {
+        NodeSchedule schedule = schedules.get(node);
+        return schedule != null && schedule.forced;
+    }
+
+    public void onHealthy(String node, long now) {
+        schedules.put(node, new NodeSchedule(now + healthyProbePeriod, 0, false));
+    }
+
+    public void onDowned(String node, long now) {
+        NodeSchedule previous = schedules.get(node);
+        int failures = (previous == null) ? 1 : previous.failures + 1;
+        schedules.put(node, new NodeSchedule(now + backoff(failures), failures, false));
+    }
+
+    /**
+     * Makes the given nodes due on the next tick, keeping their failure count.
+     */
+    public void probeNow(Collection<String> nodes) {
+        for (String node : nodes) {
+            NodeSchedule previous = schedules.get(node);
+            if (previous != null) {
+                schedules.put(node, new NodeSchedule(0, previous.failures, true));
+            }
+        }
+    }
+
+    public void forget(String node) {
+        schedules.remove(node);
+    }
+
+    public Set<String> nodes() {
+        return schedules.keySet();
+    }
+
+    /**
+     * Equal jitter: half of the exponential delay is fixed, the other half is random.
+     */
+    long backoff(int failures) {
+        long delay = discoverPeriod;
+        for (int i = 1; i < failures && delay < maxDownedBackoff; i++) {
+            delay *= 2;
+        }
+        delay = Math.min(delay, maxDownedBackoff);
+        if (delay <= discoverPeriod) {
+            return delay;
+        }
+
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    private static final class NodeSchedule {
+        private final long nextProbe;
+        private final int failures;
+        private final boolean forced;
+
+        private NodeSchedule(long nextProbe, int failures, boolean forced) {
+            this.nextProbe = nextProbe;
+            this.failures = failures;
+            this.forced = forced;
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.despegar.jdbc.galera.discovery;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Single persistent connection a galera node is probed on. Probes of a node never overlap, so a connection pool only added
+ * idle connections and housekeeping threads per node.
+ * The connection is opened on the first probe and kept until it fails or gets older than maxLifetime. A probe that fails
+ * on a reused connection with a connection error is retried once on a new connection, as the server may have closed it
+ * while idle (wait_timeout, a restart, a proxy). Any other failure closes the connection, the next probe opens a new one.
+ */
+public class StatusChannel {
+    private static final Logger LOG = LoggerFactory.getLogger(StatusChannel.class);
+
+    private final String node;
+    private final String jdbcUrl;
+    private final Properties properties;
+    private final long maxLifetime;
+
+    private volatile Connection connection;
+    private long openedAt;
+    private volatile boolean closed;
+
+    /**
+     * @param properties  driver properties, user and password included
+     * @param maxLifetime time in millis a connection is kept before reopening it. Zero means it is kept until it fails.
+     */
+    public StatusChannel(String node, String jdbcUrl, Properties properties, long maxLifetime) {
+        this.node = node;
+        this.jdbcUrl = jdbcUrl;
+        this.properties = properties;
+        this.maxLifetime = maxLifetime;
+    }
+
+    public synchronized Map<String, String> query(StatusQuery statusQuery) throws SQLException {
+        boolean reused = connection != null;
+        Connection current = connection();
+        try {
+            return statusQuery.query(current);
+        } catch (SQLException e) {
+            boolean broken = StatusQuery.isConnectionError(e) || isClosed(current);
+            closeConnection();
+            if (!reused || !broken) {
+                throw e;
+            }
+            LOG.info("Status connection to node {} failed ({}). Reconnecting", node, e.getMessage());
+        }
+
+        current = connection();
+        try {
+            return statusQuery.query(current);
+        } catch (SQLException e) {
+            closeConnection();
+            throw e;
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Status channel of node " + node + " is closed");
+        }
+        if (connection != null && maxLifetime > 0 && System.currentTimeMillis() - openedAt >= maxLifetime) {
+            closeConnection();
+        }
+        if (connection == null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Opening status connection to node {}", node);
+            }
+            Connection newConnection = DriverManager.getConnection(jdbcUrl, properties);
+            try {
+                newConnection.setAutoCommit(true);
+                newConnection.setReadOnly(true);
+            } catch (SQLException e) {
+                newConnection.close();
+                throw e;
+            }
+            connection = newConnection;
+            openedAt = System.currentTimeMillis();
+            if (closed) {
+                closeConnection();
+                throw new SQLException("Status channel of node " + node + " is closed");
+            }
+        }
+        return connection;
+    }
+
+    private static boolean isClosed(Connection connection) {
+        try {
+            return connection.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    /**
+     * @return the open connection, or null
+     */
+    Connection currentConnection() {
+        return connection;
+    }
+
+    private void closeConnection() {
+        Connection current = connection;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (SQLException e) {
+                LOG.debug("Could not close status connection to node {}", node, e);
+            }
+            connection = null;
+        }
+    }
+
+    /**
+     * Closes the connection without waiting for a probe in progress, which fails.
+     */
+    public void close() {
+        closed = true;
+        closeConnection();
+    }
+}
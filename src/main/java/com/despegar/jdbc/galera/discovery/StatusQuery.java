@@ -0,0 +1,201 @@
+package com.despegar.jdbc.galera.discovery;
+
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads the status of a galera node in a single round trip, selecting only the variables the client uses. Global variables
+ * rarely change, so they are cached for {@link #GLOBAL_VARIABLES_TTL_MILLIS} and only the status variables are read in between.
+ * The variables are selected from information_schema (MariaDB), then performance_schema (MySQL 5.7 based servers, where
+ * information_schema.GLOBAL_STATUS is disabled) and, as a last resort, with SHOW statements. The first source that works is
+ * kept for the following probes of the node. wsrep_provider_options is always read with SHOW GLOBAL VARIABLES: the schema
+ * tables truncate values to 1024 characters, and gmcast.segment usually comes later in the options.
+ * Plain statements are used: a server side prepared statement would take one more round trip for a query run once per
+ * borrowed connection.
+ */
+public class StatusQuery {
+    private static final Logger LOG = LoggerFactory.getLogger(StatusQuery.class);
+
+    public static final List<String> STATUS_VARIABLES = ImmutableList.of(
+            "wsrep_cluster_status",
+            "wsrep_local_state_comment",
+            "wsrep_local_index",
+            "wsrep_incoming_addresses",
+            "wsrep_last_committed",
+            "wsrep_flow_control_paused",
+            "wsrep_local_recv_queue_avg",
+            "wsrep_local_send_queue_avg",
+            "wsrep_cert_deps_distance",
+            "wsrep_local_cert_failures",
+            "wsrep_local_bf_aborts",
+            "Threads_connected");
+
+    public static final List<String> GLOBAL_VARIABLES = ImmutableList.of(
+            "wsrep_sync_wait",
+            "wsrep_causal_reads",
+            "wsrep_provider_options");
+
+    /**
+     * Global variables whose values may be longer than the VARCHAR(1024) of the schema tables.
+     */
+    static final List<String> LONG_GLOBAL_VARIABLES = ImmutableList.of("wsrep_provider_options");
+
+    private static final List<String> SCHEMA_GLOBAL_VARIABLES = schemaGlobalVariables();
+
+    static final long GLOBAL_VARIABLES_TTL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private static final Map<String, String> CANONICAL_NAMES = canonicalNames();
+
+    enum Source {
+        INFORMATION_SCHEMA, PERFORMANCE_SCHEMA, SHOW
+    }
+
+    private volatile Source source = Source.INFORMATION_SCHEMA;
+    private volatile Map<String, String> globalVariables = Collections.emptyMap();
+    private volatile long globalVariablesReadAt;
+
+    /**
+     * @return status and global variables by the names used by {@link com.despegar.jdbc.galera.GaleraStatus}
+     */
+    public Map<String, String> query(Connection connection) throws SQLException {
+        boolean readGlobalVariables = System.currentTimeMillis() - globalVariablesReadAt >= GLOBAL_VARIABLES_TTL_MILLIS;
+        while (true) {
+            Source current = source;
+            try {
+                Map<String, String> variables = query(connection, current, readGlobalVariables);
+                if (readGlobalVariables) {
+                    Map<String, String> globals = new HashMap<String, String>();
+                    for (String globalVariable : GLOBAL_VARIABLES) {
+                        if (variables.containsKey(globalVariable)) {
+                            globals.put(globalVariable, variables.get(globalVariable));
+                        }
+                    }
+                    globalVariables = globals;
+                    globalVariablesReadAt = System.currentTimeMillis();
+                } else {
+                    variables.putAll(globalVariables);
+                }
+                return variables;
+            } catch (SQLException e) {
+                // A broken connection says nothing about the source, it is kept for the next connection
+                if (current == Source.SHOW || isConnectionError(e) || connection.isClosed()) {
+                    throw e;
+                }
+                source = Source.values()[current.ordinal() + 1];
+                LOG.info("Status variables could not be read from {} ({}). Trying {}", current, e.getMessage(), source);
+            }
+        }
+    }
+
+    Source source() {
+        return source;
+    }
+
+    private Map<String, String> query(Connection connection, Source source, boolean readGlobalVariables) throws SQLException {
+        Map<String, String> variables = new HashMap<String, String>();
+        Statement statement = connection.createStatement();
+        try {
+            switch (source) {
+                case INFORMATION_SCHEMA:
+                case PERFORMANCE_SCHEMA:
+                    read(statement, schemaQuery(source.name(), readGlobalVariables), variables);
+                    if (readGlobalVariables) {
+                        readLongGlobalVariables(statement, variables);
+                    }
+                    break;
+                default:
+                    read(statement, "SHOW GLOBAL STATUS WHERE Variable_name IN (" + inList(STATUS_VARIABLES) + ")", variables);
+                    if (readGlobalVariables) {
+                        read(statement, "SHOW GLOBAL VARIABLES WHERE Variable_name IN (" + inList(GLOBAL_VARIABLES) + ")", variables);
+                    }
+            }
+        } finally {
+            statement.close();
+        }
+        return variables;
+    }
+
+    private static String schemaQuery(String schema, boolean readGlobalVariables) {
+        String query = "SELECT VARIABLE_NAME, VARIABLE_VALUE FROM " + schema + ".GLOBAL_STATUS WHERE VARIABLE_NAME IN (" + inList(STATUS_VARIABLES) + ")";
+        if (readGlobalVariables) {
+            query += " UNION ALL SELECT VARIABLE_NAME, VARIABLE_VALUE FROM " + schema + ".GLOBAL_VARIABLES WHERE VARIABLE_NAME IN ("
+                     + inList(SCHEMA_GLOBAL_VARIABLES) + ")";
+        }
+        return query;
+    }
+
+    /**
+     * A server without SHOW, or without galera, still gives the other variables: the long ones are left out.
+     */
+    private static void readLongGlobalVariables(Statement statement, Map<String, String> variables) throws SQLException {
+        try {
+            read(statement, "SHOW GLOBAL VARIABLES WHERE Variable_name IN (" + inList(LONG_GLOBAL_VARIABLES) + ")", variables);
+        } catch (SQLException e) {
+            if (isConnectionError(e)) {
+                throw e;
+            }
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Variables {} could not be read ({})", LONG_GLOBAL_VARIABLES, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * information_schema reports the names in upper case, they are put back to the names the client looks up.
+     */
+    private static void read(Statement statement, String query, Map<String, String> variables) throws SQLException {
+        ResultSet resultSet = statement.executeQuery(query);
+        try {
+            while (resultSet.next()) {
+                String name = resultSet.getString(1);
+                String canonicalName = CANONICAL_NAMES.get(name);
+                variables.put(canonicalName != null ? canonicalName : name, resultSet.getString(2));
+            }
+        } finally {
+            resultSet.close();
+        }
+    }
+
+    static boolean isConnectionError(SQLException e) {
+        String sqlState = e.getSQLState();
+        return e instanceof SQLNonTransientConnectionException || e instanceof SQLTransientConnectionException
+               || (sqlState != null && sqlState.startsWith("08"));
+    }
+
+    private static String inList(List<String> names) {
+        return "'" + Joiner.on("','").join(names) + "'";
+    }
+
+    private static List<String> schemaGlobalVariables() {
+        List<String> schemaGlobalVariables = new ArrayList<String>(GLOBAL_VARIABLES);
+        schemaGlobalVariables.removeAll(LONG_GLOBAL_VARIABLES);
+        return ImmutableList.copyOf(schemaGlobalVariables);
+    }
+
+    private static Map<String, String> canonicalNames() {
+        Map<String, String> canonicalNames = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        for (String name : STATUS_VARIABLES) {
+            canonicalNames.put(name, name);
+        }
+        for (String name : GLOBAL_VARIABLES) {
+            canonicalNames.put(name, name);
+        }
+        return canonicalNames;
+    }
+}
@@ -6,7 +6,7 @@ import com.google.common.base.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class GaleraClientLoggingListener implements GaleraClientListener {
+public class GaleraClientLoggingListener implements GaleraClientListener, WriterElectionListener {
     private static final Logger LOG = LoggerFactory.getLogger(GaleraClientLoggingListener.class);
 
     @Override
@@ -24,6 +24,11 @@ public class GaleraClientLoggingListener implements GaleraClientListener {
         LOG.info("Removing galera node: {}", node);
     }
 
+    @Override
+    public void onElectingWriter(String node, String previousWriter) {
+        LOG.info("Electing galera node {} as writer. Previous writer: {}", node, previousWriter);
+    }
+
     public void onDiscoveryPoolMetrics(String nodeName, String poolName, HikariMetrics hikariMetrics, Optional<Integer> threadsConnected) {
         LOG.info(
                 "Metrics for node {}, pool '{}' ---> TimeWaitingForConnection (p95): {}, Usage time (p95): {}, Total connections: {}, Idle connections: {}, " +
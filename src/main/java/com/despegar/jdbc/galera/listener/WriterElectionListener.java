@@ -0,0 +1,16 @@
+package com.despegar.jdbc.galera.listener;
+
+import javax.annotation.Nullable;
+
+/**
+ * Optional callback of single writer mode. A {@link GaleraClientListener} that also implements it is told of each election.
+ */
+public interface WriterElectionListener {
+
+    /**
+     * Called each time write connections start going to another node.
+     *
+     * @param previousWriter node that took the writes before, or null if there was none
+     */
+    void onElectingWriter(String node, @Nullable String previousWriter);
+}
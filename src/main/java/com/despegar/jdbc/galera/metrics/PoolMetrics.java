@@ -14,6 +14,7 @@ import java.util.Map;
 import java.util.SortedMap;
 
 import static com.despegar.jdbc.galera.utils.PoolNameHelper.getFullPoolName;
+import static com.despegar.jdbc.galera.utils.PoolNameHelper.getFullWritePoolName;
 import static com.despegar.jdbc.galera.utils.PoolNameHelper.nodeNameWithoutPort;
 
 public class PoolMetrics {
@@ -32,20 +33,28 @@ public class PoolMetrics {
         }
 
         for (String nodeName : nodes.keySet()) {
-            final String poolFullName = getFullPoolName(poolName, nodeName);
+            reportMetrics(metricRegistry, nodes.get(nodeName), nodeName, getFullPoolName(poolName, nodeName), listener);
 
-            HikariMetrics hikariMetrics = HikariMetrics.newBuilder()
-                    .waitPercentile95(getTimerPercentile95(metricRegistry, poolFullName + METRIC_NAME_POOL_WAIT))
-                    .usagePercentile95(getHistogramPercentile95(metricRegistry, poolFullName + METRIC_NAME_POOL_USAGE))
-                    .totalConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_TOTAL_CONN))
-                    .idleConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_IDLE_CONN))
-                    .activeConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_ACTIVE_CONN))
-                    .waitingForConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_PENDING_CONN)).build();
+            String writePoolFullName = getFullWritePoolName(poolName, nodeName);
+            if (metricRegistry.getGauges().containsKey(writePoolFullName + METRIC_NAME_TOTAL_CONN)) {
+                reportMetrics(metricRegistry, nodes.get(nodeName), nodeName, writePoolFullName, listener);
+            }
+        }
+    }
 
-            Optional<Integer> threadsConnected = getThreadsConnected(nodes.get(nodeName));
+    private static void reportMetrics(MetricRegistry metricRegistry, GaleraNode galeraNode, String nodeName, String poolFullName,
+                                      GaleraClientListener listener) {
+        HikariMetrics hikariMetrics = HikariMetrics.newBuilder()
+                .waitPercentile95(getTimerPercentile95(metricRegistry, poolFullName + METRIC_NAME_POOL_WAIT))
+                .usagePercentile95(getHistogramPercentile95(metricRegistry, poolFullName + METRIC_NAME_POOL_USAGE))
+                .totalConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_TOTAL_CONN))
+                .idleConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_IDLE_CONN))
+                .activeConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_ACTIVE_CONN))
+                .waitingForConnections(getGaugeValue(metricRegistry, poolFullName + METRIC_NAME_PENDING_CONN)).build();
 
-            listener.onDiscoveryPoolMetrics(nodeNameWithoutPort(nodeName), poolFullName, hikariMetrics, threadsConnected);
-        }
+        Optional<Integer> threadsConnected = getThreadsConnected(galeraNode);
+
+        listener.onDiscoveryPoolMetrics(nodeNameWithoutPort(nodeName), poolFullName, hikariMetrics, threadsConnected);
     }
 
     private static Optional<Integer> getThreadsConnected(GaleraNode galeraNode) {
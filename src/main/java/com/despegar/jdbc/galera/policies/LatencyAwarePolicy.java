@@ -0,0 +1,75 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraNode;
+import com.google.common.base.MoreObjects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Select the active galera node with the lowest cost: the moving averages of the connection acquire time and of the statement
+ * latency, as kept by each {@link GaleraNode}, times the connections in flight plus one. Weighting by the in-flight connections
+ * keeps the fastest node from getting every request. Averages fade while they get no new sample, so a node that regressed
+ * is tried again once its bad samples are old.
+ * Nothing is locked: the averages and counters are read as they are.
+ */
+public class LatencyAwarePolicy implements TopologyAwarePolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(LatencyAwarePolicy.class);
+
+    private AtomicInteger nextNodeIndex = new AtomicInteger(new Random().nextInt(997));
+
+    /**
+     * Node names carry no latency information, the names are taken in turn.
+     */
+    @Override
+    public String chooseNode(List<String> activeNodes) {
+        return activeNodes.get(getNextIndex() % activeNodes.size());
+    }
+
+    @Override
+    public GaleraNode chooseNode(ClusterTopology topology) {
+        int size = topology.size();
+        int start = getNextIndex() % size;
+        GaleraNode selectedNode = topology.get(start);
+        double lowestCost = cost(selectedNode);
+        for (int i = 1; i < size; i++) {
+            GaleraNode candidate = topology.get((start + i) % size);
+            double cost = cost(candidate);
+            if (cost < lowestCost) {
+                selectedNode = candidate;
+                lowestCost = cost;
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Selected latencyAware node {} with cost {}", selectedNode.node, lowestCost);
+        }
+        return selectedNode;
+    }
+
+    /**
+     * One nano is added so nodes without samples yet still compete by their in-flight connections.
+     */
+    private static double cost(GaleraNode galeraNode) {
+        double latency = galeraNode.getAcquireLatency() + galeraNode.getStatementLatency() + 1;
+        return latency * (galeraNode.getInFlightConnections() + 1);
+    }
+
+    private int getNextIndex() {
+        return nextNodeIndex.getAndIncrement() & Integer.MAX_VALUE;
+    }
+
+    @Override
+    public String getName() {
+        return "LatencyAware";
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).toString();
+    }
+}
@@ -0,0 +1,96 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraNode;
+import com.google.common.base.MoreObjects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Select the active galera node with the fewest connections borrowed and not closed yet, as counted by each
+ * {@link GaleraNode}. A node slowed down by a heavy query holds its connections longer, so it gets fewer new ones.
+ * By default every active node is compared, starting from a rotating node so ties are spread. With power-of-two-choices
+ * only two random nodes are compared, which keeps the selection O(1) and avoids every caller piling on the same node.
+ */
+public class LeastOutstandingRequestsPolicy implements TopologyAwarePolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(LeastOutstandingRequestsPolicy.class);
+
+    private final boolean powerOfTwoChoices;
+    private AtomicInteger nextNodeIndex = new AtomicInteger(new Random().nextInt(997));
+
+    public LeastOutstandingRequestsPolicy() {
+        this(false);
+    }
+
+    public LeastOutstandingRequestsPolicy(boolean powerOfTwoChoices) {
+        this.powerOfTwoChoices = powerOfTwoChoices;
+    }
+
+    /**
+     * Node names carry no load information, the names are taken in turn.
+     */
+    @Override
+    public String chooseNode(List<String> activeNodes) {
+        return activeNodes.get(getNextIndex() % activeNodes.size());
+    }
+
+    @Override
+    public GaleraNode chooseNode(ClusterTopology topology) {
+        GaleraNode selectedNode = powerOfTwoChoices ? chooseOfTwo(topology) : chooseOfAll(topology);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Selected leastOutstandingRequests node {}", selectedNode.node);
+        }
+        return selectedNode;
+    }
+
+    private GaleraNode chooseOfAll(ClusterTopology topology) {
+        int size = topology.size();
+        int start = getNextIndex() % size;
+        GaleraNode selectedNode = topology.get(start);
+        long fewest = selectedNode.getInFlightConnections();
+        for (int i = 1; i < size && fewest > 0; i++) {
+            GaleraNode candidate = topology.get((start + i) % size);
+            long inFlight = candidate.getInFlightConnections();
+            if (inFlight < fewest) {
+                selectedNode = candidate;
+                fewest = inFlight;
+            }
+        }
+        return selectedNode;
+    }
+
+    private GaleraNode chooseOfTwo(ClusterTopology topology) {
+        int size = topology.size();
+        if (size == 1) {
+            return topology.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(size);
+        int second = (first + 1 + random.nextInt(size - 1)) % size;
+        GaleraNode firstNode = topology.get(first);
+        GaleraNode secondNode = topology.get(second);
+        return secondNode.getInFlightConnections() < firstNode.getInFlightConnections() ? secondNode : firstNode;
+    }
+
+    private int getNextIndex() {
+        return nextNodeIndex.getAndIncrement() & Integer.MAX_VALUE;
+    }
+
+    @Override
+    public String getName() {
+        return "LeastOutstandingRequests";
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("powerOfTwoChoices", powerOfTwoChoices)
+                .toString();
+    }
+}
@@ -1,5 +1,7 @@
 package com.despegar.jdbc.galera.policies;
 
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,7 +11,7 @@ import java.util.List;
 /**
  * We choose master choosing always the first active node sorted alphabetically
  */
-public class MasterSortingNodesPolicy implements ElectionNodePolicy {
+public class MasterSortingNodesPolicy implements TopologyAwarePolicy {
     private static final Logger LOG = LoggerFactory.getLogger(MasterSortingNodesPolicy.class);
 
     public String chooseNode(List<String> activeNodes) {
@@ -23,6 +25,15 @@ public class MasterSortingNodesPolicy implements ElectionNodePolicy {
         return master;
     }
 
+    @Override
+    public GaleraNode chooseNode(ClusterTopology topology) {
+        GaleraNode master = topology.getSortedByName(0);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Master node selected {}", master.node);
+        }
+        return master;
+    }
+
     @Override
     public String getName() {
         return "MasterSortingNodes";
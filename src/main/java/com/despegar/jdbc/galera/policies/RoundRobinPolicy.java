@@ -1,5 +1,7 @@
 package com.despegar.jdbc.galera.policies;
 
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraNode;
 import com.despegar.jdbc.galera.NoHostAvailableException;
 import com.google.common.base.MoreObjects;
 import org.slf4j.Logger;
@@ -12,7 +14,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 /**
  * Select the next active galera node
  */
-public class RoundRobinPolicy implements ElectionNodePolicy {
+public class RoundRobinPolicy implements TopologyAwarePolicy {
     private static final Logger LOG = LoggerFactory.getLogger(RoundRobinPolicy.class);
 
     private AtomicInteger nextNodeIndex = new AtomicInteger(new Random().nextInt(997));
@@ -26,6 +28,15 @@ public class RoundRobinPolicy implements ElectionNodePolicy {
         return selectedNode;
     }
 
+    @Override
+    public GaleraNode chooseNode(ClusterTopology topology) {
+        GaleraNode selectedNode = topology.get(getNextIndex() % topology.size());
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Selected roundRobin node {}", selectedNode.node);
+        }
+        return selectedNode;
+    }
+
     @Override
     public String getName() {
         return "RoundRobin";
@@ -41,14 +52,11 @@ public class RoundRobinPolicy implements ElectionNodePolicy {
         return getNextIndex() % activeNodesCount;
     }
 
+    /**
+     * The counter is allowed to overflow, the sign bit is masked out instead of resetting it.
+     */
     private int getNextIndex() {
-        int nextIndex = nextNodeIndex.getAndIncrement();
-
-        if (nextIndex > 1000000) {
-            nextNodeIndex.set(0);
-        }
-
-        return nextIndex;
+        return nextNodeIndex.getAndIncrement() & Integer.MAX_VALUE;
     }
 
     @Override
@@ -0,0 +1,62 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Preconditions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ramps up the share of traffic of a node after its activation, over a window. The weight of the node grows from
+ * {@link #INITIAL_WEIGHT} to 1, linearly or exponentially (doubling at a steady pace), and a node chosen by the election
+ * policy is only kept with that probability. Otherwise another node is drawn at random in proportion to the weights.
+ * It applies on top of any {@link ElectionNodePolicy}.
+ */
+public class SlowStart {
+    public static final double INITIAL_WEIGHT = 0.01;
+
+    public enum Ramp {
+        LINEAR, EXPONENTIAL
+    }
+
+    public final Ramp ramp;
+    public final long window;
+
+    private SlowStart(Ramp ramp, long window) {
+        Preconditions.checkArgument(window > 0, "Slow start window must be greater than 0. It was: %s", window);
+        this.ramp = ramp;
+        this.window = window;
+    }
+
+    public static SlowStart linear(long window, TimeUnit unit) {
+        return new SlowStart(Ramp.LINEAR, unit.toMillis(window));
+    }
+
+    public static SlowStart exponential(long window, TimeUnit unit) {
+        return new SlowStart(Ramp.EXPONENTIAL, unit.toMillis(window));
+    }
+
+    /**
+     * @param sinceActivation millis elapsed since the node was activated
+     * @return share, from {@link #INITIAL_WEIGHT} to 1, of the traffic the node would get without slow start
+     */
+    public double weight(long sinceActivation) {
+        if (sinceActivation >= window) {
+            return 1;
+        }
+        double progress = Math.max(0, (double) sinceActivation / window);
+        switch (ramp) {
+            case EXPONENTIAL:
+                return Math.pow(INITIAL_WEIGHT, 1 - progress);
+            default:
+                return INITIAL_WEIGHT + (1 - INITIAL_WEIGHT) * progress;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("ramp", ramp)
+                .add("window", window)
+                .toString();
+    }
+}
@@ -0,0 +1,17 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraNode;
+
+/**
+ * An {@link ElectionNodePolicy} that picks the node straight from the published {@link ClusterTopology} snapshot.
+ * The client always prefers this method when the policy implements it.
+ */
+public interface TopologyAwarePolicy extends ElectionNodePolicy {
+
+    /**
+     * @param topology non empty snapshot of the active nodes
+     */
+    GaleraNode chooseNode(ClusterTopology topology);
+
+}
@@ -0,0 +1,187 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraNode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.MoreObjects;
+import com.google.common.math.IntMath;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Select the active galera nodes in proportion to their weights, set with {@link com.despegar.jdbc.galera.GaleraClient#setNodeWeight}.
+ * The order is the one of smooth weighted round robin (as in nginx): with weights 5, 1 and 1 the nodes go a a b a c a a
+ * instead of a a a a a b c. The sequence is computed once per published topology, so a selection is a lock-free
+ * increment of a counter. Weights are reduced by their greatest common divisor and scaled down when they add up to more than
+ * {@link #MAX_SCHEDULE_LENGTH}. A node with weight 0 gets no traffic unless every node has weight 0.
+ * Filtered views of the topology, as the writer set or the nodes of a bounded staleness read, get their own sequence and
+ * counter, kept until a new topology is published.
+ */
+public class WeightedRoundRobinPolicy implements TopologyAwarePolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(WeightedRoundRobinPolicy.class);
+
+    static final int MAX_SCHEDULE_LENGTH = 4096;
+
+    /**
+     * Distinct filtered views whose sequences are kept per published topology.
+     */
+    static final int MAX_FILTERED_VIEWS = 64;
+
+    private AtomicInteger nextNodeIndex = new AtomicInteger(new Random().nextInt(997));
+    private AtomicReference<Schedules> schedules = new AtomicReference<Schedules>();
+
+    /**
+     * Node names carry no weight, the names are taken in turn.
+     */
+    @Override
+    public String chooseNode(List<String> activeNodes) {
+        return activeNodes.get(getNextIndex() % activeNodes.size());
+    }
+
+    @Override
+    public GaleraNode chooseNode(ClusterTopology topology) {
+        GaleraNode selectedNode = schedules(topology.published()).of(topology).next();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Selected weightedRoundRobin node {}", selectedNode.node);
+        }
+        return selectedNode;
+    }
+
+    /**
+     * A thread still holding an older published topology does not replace the schedules of a newer one.
+     */
+    private Schedules schedules(ClusterTopology published) {
+        Schedules current = schedules.get();
+        if (current != null && current.published == published) {
+            return current;
+        }
+
+        Schedules newSchedules = new Schedules(published);
+        if (current == null || published.version >= current.published.version) {
+            schedules.set(newSchedules);
+        }
+        return newSchedules;
+    }
+
+    private int getNextIndex() {
+        return nextNodeIndex.getAndIncrement() & Integer.MAX_VALUE;
+    }
+
+    @VisibleForTesting
+    static GaleraNode[] schedule(ClusterTopology topology) {
+        return new Schedule(topology).nodes;
+    }
+
+    @Override
+    public String getName() {
+        return "WeightedRoundRobin";
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).toString();
+    }
+
+    /**
+     * Sequences of a published topology and of the filtered views derived from it, by node names.
+     */
+    private static final class Schedules {
+        private final ClusterTopology published;
+        private final Schedule schedule;
+        private final ConcurrentMap<List<String>, Schedule> filteredViews = new ConcurrentHashMap<List<String>, Schedule>();
+
+        private Schedules(ClusterTopology published) {
+            this.published = published;
+            this.schedule = new Schedule(published);
+        }
+
+        private Schedule of(ClusterTopology topology) {
+            if (!topology.isFiltered()) {
+                return schedule;
+            }
+
+            Schedule viewSchedule = filteredViews.get(topology.nodeNames());
+            if (viewSchedule == null) {
+                if (filteredViews.size() >= MAX_FILTERED_VIEWS) {
+                    filteredViews.clear();
+                }
+                Schedule newSchedule = new Schedule(topology);
+                viewSchedule = filteredViews.putIfAbsent(topology.nodeNames(), newSchedule);
+                if (viewSchedule == null) {
+                    viewSchedule = newSchedule;
+                }
+            }
+            return viewSchedule;
+        }
+    }
+
+    private static final class Schedule {
+        private final GaleraNode[] nodes;
+        private final AtomicInteger nextIndex = new AtomicInteger(ThreadLocalRandom.current().nextInt(997));
+
+        private Schedule(ClusterTopology topology) {
+            this.nodes = smoothSequence(topology, weights(topology));
+        }
+
+        private GaleraNode next() {
+            return nodes[(nextIndex.getAndIncrement() & Integer.MAX_VALUE) % nodes.length];
+        }
+
+        private static int[] weights(ClusterTopology topology) {
+            int size = topology.size();
+            int[] weights = new int[size];
+            long total = 0;
+            int gcd = 0;
+            for (int i = 0; i < size; i++) {
+                weights[i] = Math.max(0, topology.weight(i));
+                total += weights[i];
+                gcd = IntMath.gcd(gcd, weights[i]);
+            }
+
+            if (total == 0) {
+                for (int i = 0; i < size; i++) {
+                    weights[i] = 1;
+                }
+                return weights;
+            }
+
+            for (int i = 0; i < size; i++) {
+                weights[i] /= gcd;
+                if (total / gcd > MAX_SCHEDULE_LENGTH && weights[i] > 0) {
+                    weights[i] = (int) Math.max(1, weights[i] * (long) MAX_SCHEDULE_LENGTH / (total / gcd));
+                }
+            }
+            return weights;
+        }
+
+        private static GaleraNode[] smoothSequence(ClusterTopology topology, int[] weights) {
+            int total = 0;
+            for (int weight : weights) {
+                total += weight;
+            }
+
+            GaleraNode[] sequence = new GaleraNode[total];
+            int[] currentWeights = new int[weights.length];
+            for (int step = 0; step < total; step++) {
+                int best = -1;
+                for (int i = 0; i < weights.length; i++) {
+                    currentWeights[i] += weights[i];
+                    if (weights[i] > 0 && (best < 0 || currentWeights[i] > currentWeights[best])) {
+                        best = i;
+                    }
+                }
+                currentWeights[best] -= total;
+                sequence[step] = topology.get(best);
+            }
+            return sequence;
+        }
+    }
+}
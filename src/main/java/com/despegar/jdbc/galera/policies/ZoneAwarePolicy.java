@@ -0,0 +1,143 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraNode;
+import com.google.common.base.MoreObjects;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Select an active galera node of the zone of the client, with the delegate policy. The nodes of other zones only get
+ * connections when no local node is active, or when every local node is saturated: it has maxInFlightPerNode connections
+ * borrowed and not closed yet. Nodes whose zone is unknown count as remote.
+ * The split into local and remote nodes is done once per published topology, with the last status of each node.
+ */
+public class ZoneAwarePolicy implements TopologyAwarePolicy {
+    private static final Logger LOG = LoggerFactory.getLogger(ZoneAwarePolicy.class);
+
+    private final String localZone;
+    private final ZoneResolver zoneResolver;
+    private final ElectionNodePolicy delegate;
+    private final int maxInFlightPerNode;
+    private final AtomicReference<ZoneView> zoneView = new AtomicReference<ZoneView>();
+
+    public ZoneAwarePolicy(String localZone, ZoneResolver zoneResolver) {
+        this(localZone, zoneResolver, new RoundRobinPolicy(), 0);
+    }
+
+    /**
+     * @param delegate           chooses among the local nodes, or among the remote ones when spilling over
+     * @param maxInFlightPerNode connections in flight a local node is saturated at. Zero means local nodes are never saturated.
+     */
+    public ZoneAwarePolicy(String localZone, ZoneResolver zoneResolver, ElectionNodePolicy delegate, int maxInFlightPerNode) {
+        this.localZone = localZone;
+        this.zoneResolver = zoneResolver;
+        this.delegate = delegate;
+        this.maxInFlightPerNode = maxInFlightPerNode;
+    }
+
+    /**
+     * Only the node names are known, so the zone comes from resolvers that do not need the status.
+     */
+    @Override
+    public String chooseNode(List<String> activeNodes) {
+        List<String> localNodes = new ArrayList<String>(activeNodes.size());
+        for (String activeNode : activeNodes) {
+            if (localZone.equals(zoneResolver.zoneOf(activeNode, null))) {
+                localNodes.add(activeNode);
+            }
+        }
+        return delegate.chooseNode(localNodes.isEmpty() ? activeNodes : localNodes);
+    }
+
+    @Override
+    public GaleraNode chooseNode(ClusterTopology topology) {
+        ZoneView view = zoneView(topology);
+        if (!view.local.isEmpty()) {
+            GaleraNode selectedNode = choose(view.local);
+            if (!isSaturated(selectedNode)) {
+                return selectedNode;
+            }
+            for (int i = 0; i < view.local.size(); i++) {
+                if (!isSaturated(view.local.get(i))) {
+                    return view.local.get(i);
+                }
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("No available node in zone {}. Spilling over to {}", localZone, view.remote.nodeNames());
+        }
+        return choose(view.remote.isEmpty() ? topology : view.remote);
+    }
+
+    /**
+     * Only the split of published topologies is cached. Filtered views, as the ones of bounded staleness reads, are split
+     * each time.
+     */
+    private ZoneView zoneView(ClusterTopology topology) {
+        ZoneView current = zoneView.get();
+        if (current != null && current.topology == topology) {
+            return current;
+        }
+
+        ZoneView view = new ZoneView(topology, localZone, zoneResolver);
+        if (!topology.isFiltered()) {
+            zoneView.set(view);
+        }
+        return view;
+    }
+
+    private GaleraNode choose(ClusterTopology topology) {
+        if (delegate instanceof TopologyAwarePolicy) {
+            return ((TopologyAwarePolicy) delegate).chooseNode(topology);
+        }
+        GaleraNode galeraNode = topology.find(delegate.chooseNode(topology.nodeNames()));
+        return (galeraNode != null) ? galeraNode : topology.get(0);
+    }
+
+    private boolean isSaturated(GaleraNode galeraNode) {
+        return maxInFlightPerNode > 0 && galeraNode.getInFlightConnections() >= maxInFlightPerNode;
+    }
+
+    @Override
+    public String getName() {
+        return "ZoneAware";
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("localZone", localZone)
+                .add("zoneResolver", zoneResolver)
+                .add("delegate", delegate)
+                .add("maxInFlightPerNode", maxInFlightPerNode)
+                .toString();
+    }
+
+    private static final class ZoneView {
+        private final ClusterTopology topology;
+        private final ClusterTopology local;
+        private final ClusterTopology remote;
+
+        private ZoneView(ClusterTopology topology, String localZone, ZoneResolver zoneResolver) {
+            List<GaleraNode> localNodes = new ArrayList<GaleraNode>(topology.size());
+            List<GaleraNode> remoteNodes = new ArrayList<GaleraNode>(topology.size());
+            for (int i = 0; i < topology.size(); i++) {
+                GaleraNode galeraNode = topology.get(i);
+                if (localZone.equals(zoneResolver.zoneOf(galeraNode.node, galeraNode.getLastStatus()))) {
+                    localNodes.add(galeraNode);
+                } else {
+                    remoteNodes.add(galeraNode);
+                }
+            }
+            this.topology = topology;
+            this.local = ClusterTopology.filteredFrom(topology, localNodes);
+            this.remote = ClusterTopology.filteredFrom(topology, remoteNodes);
+        }
+    }
+}
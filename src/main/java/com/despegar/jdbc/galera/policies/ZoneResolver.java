@@ -0,0 +1,19 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.GaleraStatus;
+
+import javax.annotation.Nullable;
+
+/**
+ * Maps a galera node to its zone (availability zone, rack or datacenter). See {@link ZoneResolvers} for the bundled ones.
+ */
+public interface ZoneResolver {
+
+    /**
+     * @param node   node name, as in the seeds or in wsrep_incoming_addresses
+     * @param status last status of the node, or null when only the name is known
+     * @return the zone of the node, or null if it is unknown
+     */
+    @Nullable
+    String zoneOf(String node, @Nullable GaleraStatus status);
+}
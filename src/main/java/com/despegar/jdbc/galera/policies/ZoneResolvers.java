@@ -0,0 +1,117 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.GaleraStatus;
+import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Bundled {@link ZoneResolver}s. The host pattern and the segment ones also resolve the nodes found in
+ * wsrep_incoming_addresses, not only the seeds.
+ */
+public final class ZoneResolvers {
+    private static final Logger LOG = LoggerFactory.getLogger(ZoneResolvers.class);
+
+    private ZoneResolvers() {
+    }
+
+    /**
+     * @param zones zone by node name
+     */
+    public static ZoneResolver fromMap(Map<String, String> zones) {
+        final Map<String, String> zonesByNode = ImmutableMap.copyOf(zones);
+        return new ZoneResolver() {
+            @Override
+            public String zoneOf(String node, @Nullable GaleraStatus status) {
+                return zonesByNode.get(node);
+            }
+
+            @Override
+            public String toString() {
+                return MoreObjects.toStringHelper("MapZoneResolver").add("zones", zonesByNode).toString();
+            }
+        };
+    }
+
+    /**
+     * @param hostPattern pattern found in the node name, the zone being its first group. For example
+     *                    {@code db-\\d+\\.([a-z0-9-]+)\\.example\\.com} maps db-1.us-east-1a.example.com:3306 to us-east-1a.
+     */
+    public static ZoneResolver fromHostPattern(final Pattern hostPattern) {
+        return new ZoneResolver() {
+            @Override
+            public String zoneOf(String node, @Nullable GaleraStatus status) {
+                Matcher matcher = hostPattern.matcher(node);
+                return (matcher.find() && matcher.groupCount() > 0) ? matcher.group(1) : null;
+            }
+
+            @Override
+            public String toString() {
+                return MoreObjects.toStringHelper("HostPatternZoneResolver").add("hostPattern", hostPattern).toString();
+            }
+        };
+    }
+
+    /**
+     * The zone is the gmcast.segment the node reports in wsrep_provider_options, as a string ("0", "1"...). Galera itself uses
+     * segments to keep replication traffic within a datacenter. A node whose status has no segment is warned about once.
+     */
+    public static ZoneResolver fromSegment() {
+        final Set<String> nodesWithoutSegment = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        return new ZoneResolver() {
+            @Override
+            public String zoneOf(String node, @Nullable GaleraStatus status) {
+                if (status == null) {
+                    return null;
+                }
+                if (status.segment() < 0) {
+                    if (nodesWithoutSegment.add(node)) {
+                        LOG.warn("Node {} reports no gmcast.segment in wsrep_provider_options. Its zone is unknown", node);
+                    }
+                    return null;
+                }
+                return String.valueOf(status.segment());
+            }
+
+            @Override
+            public String toString() {
+                return "SegmentZoneResolver";
+            }
+        };
+    }
+
+    /**
+     * @return the zone given by the first resolver that knows it
+     */
+    public static ZoneResolver firstOf(ZoneResolver... resolvers) {
+        final List<ZoneResolver> zoneResolvers = ImmutableList.copyOf(resolvers);
+        return new ZoneResolver() {
+            @Override
+            public String zoneOf(String node, @Nullable GaleraStatus status) {
+                for (ZoneResolver resolver : zoneResolvers) {
+                    String zone = resolver.zoneOf(node, status);
+                    if (zone != null) {
+                        return zone;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public String toString() {
+                return MoreObjects.toStringHelper("FirstOfZoneResolver").add("resolvers", zoneResolvers).toString();
+            }
+        };
+    }
+}
@@ -1,10 +1,18 @@
 package com.despegar.jdbc.galera.settings;
 
+import com.despegar.jdbc.galera.GaleraStatus;
 import com.despegar.jdbc.galera.listener.GaleraClientListener;
 import com.despegar.jdbc.galera.policies.ElectionNodePolicy;
+import com.despegar.jdbc.galera.policies.SlowStart;
+import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
+import com.google.common.collect.ImmutableMap;
 
+import javax.annotation.Nullable;
+
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 public class ClientSettings {
     public final List<String> seeds;
@@ -17,13 +25,83 @@ public class ClientSettings {
      */
     public final boolean testMode;
 
+    /**
+     * Traffic ramp of newly activated nodes, or null to give them their full share right away.
+     */
+    @Nullable
+    public final SlowStart slowStart;
+
+    /**
+     * Initial weights of the nodes by name, for weighted policies. Nodes not in the map have {@code GaleraNode.DEFAULT_WEIGHT}.
+     */
+    public final Map<String, Integer> nodeWeights;
+
+    /**
+     * Derives the weight of a node from each of its statuses, or null to keep the weights as set.
+     */
+    @Nullable
+    public final Function<GaleraStatus, Integer> nodeWeigher;
+
+    /**
+     * Route write connections to a single node, elected by every client of the cluster with the same rule.
+     */
+    public final boolean singleWriter;
+
+    /**
+     * Millis a new writer waits before taking writes, so the connections of the previous one drain and the other clients see
+     * the same change.
+     */
+    public final long writerFencingPeriod;
+
+    /**
+     * Policy of read and write connections. The default node selection policy is used when they are null.
+     */
+    @Nullable
+    public final ElectionNodePolicy readNodeSelectionPolicy;
+    @Nullable
+    public final ElectionNodePolicy writeNodeSelectionPolicy;
+
+    /**
+     * Active nodes write connections are taken from, the first ones in writer election order. Zero means all of them.
+     */
+    public final int writerSetSize;
+
+    /**
+     * Certification conflicts per second, over the active nodes, above which the writer set is narrowed. Zero disables it.
+     */
+    public final double maxConflictRate;
+
+    /**
+     * Millis the conflict rate has to stay low before a narrowed writer set is widened again.
+     */
+    public final long conflictCooldown;
+
     public ClientSettings(List<String> seeds, int retriesToGetConnection, GaleraClientListener galeraClientListener,
                           ElectionNodePolicy defaultNodeSelectionPolicy, boolean testMode) {
-        this.seeds = seeds;
-        this.retriesToGetConnection = retriesToGetConnection;
-        this.galeraClientListener = galeraClientListener;
-        this.defaultNodeSelectionPolicy = defaultNodeSelectionPolicy;
-        this.testMode = testMode;
+        this(newBuilder().seeds(seeds).retriesToGetConnection(retriesToGetConnection).galeraClientListener(galeraClientListener)
+                     .defaultNodeSelectionPolicy(defaultNodeSelectionPolicy).testMode(testMode));
+    }
+
+    private ClientSettings(Builder builder) {
+        seeds = builder.seeds;
+        retriesToGetConnection = builder.retriesToGetConnection;
+        galeraClientListener = builder.galeraClientListener;
+        defaultNodeSelectionPolicy = builder.defaultNodeSelectionPolicy;
+        testMode = builder.testMode;
+        slowStart = builder.slowStart;
+        nodeWeights = ImmutableMap.copyOf(builder.nodeWeights);
+        nodeWeigher = builder.nodeWeigher;
+        singleWriter = builder.singleWriter;
+        writerFencingPeriod = builder.writerFencingPeriod;
+        readNodeSelectionPolicy = builder.readNodeSelectionPolicy;
+        writeNodeSelectionPolicy = builder.writeNodeSelectionPolicy;
+        writerSetSize = builder.writerSetSize;
+        maxConflictRate = builder.maxConflictRate;
+        conflictCooldown = builder.conflictCooldown;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
     }
 
     @Override
@@ -35,6 +113,115 @@ public class ClientSettings {
                 .add("galeraClientListener", galeraClientListener)
                 .add("defaultNodeSelectionPolicy", defaultNodeSelectionPolicy)
                 .add("testMode", testMode)
+                .add("slowStart", slowStart)
+                .add("nodeWeights", nodeWeights)
+                .add("nodeWeigher", nodeWeigher)
+                .add("singleWriter", singleWriter)
+                .add("writerFencingPeriod", writerFencingPeriod)
+                .add("readNodeSelectionPolicy", readNodeSelectionPolicy)
+                .add("writeNodeSelectionPolicy", writeNodeSelectionPolicy)
+                .add("writerSetSize", writerSetSize)
+                .add("maxConflictRate", maxConflictRate)
+                .add("conflictCooldown", conflictCooldown)
                 .toString();
     }
+    public static final class Builder {
+        private List<String> seeds;
+        private int retriesToGetConnection;
+        private GaleraClientListener galeraClientListener;
+        private ElectionNodePolicy defaultNodeSelectionPolicy;
+        private boolean testMode;
+        private SlowStart slowStart;
+        private Map<String, Integer> nodeWeights = Collections.emptyMap();
+        private Function<GaleraStatus, Integer> nodeWeigher;
+        private boolean singleWriter;
+        private long writerFencingPeriod;
+        private ElectionNodePolicy readNodeSelectionPolicy;
+        private ElectionNodePolicy writeNodeSelectionPolicy;
+        private int writerSetSize;
+        private double maxConflictRate;
+        private long conflictCooldown;
+
+        private Builder() {
+        }
+
+        public Builder seeds(List<String> seeds) {
+            this.seeds = seeds;
+            return this;
+        }
+
+        public Builder retriesToGetConnection(int retriesToGetConnection) {
+            this.retriesToGetConnection = retriesToGetConnection;
+            return this;
+        }
+
+        public Builder galeraClientListener(GaleraClientListener galeraClientListener) {
+            this.galeraClientListener = galeraClientListener;
+            return this;
+        }
+
+        public Builder defaultNodeSelectionPolicy(ElectionNodePolicy defaultNodeSelectionPolicy) {
+            this.defaultNodeSelectionPolicy = defaultNodeSelectionPolicy;
+            return this;
+        }
+
+        public Builder testMode(boolean testMode) {
+            this.testMode = testMode;
+            return this;
+        }
+
+        public Builder slowStart(@Nullable SlowStart slowStart) {
+            this.slowStart = slowStart;
+            return this;
+        }
+
+        public Builder nodeWeights(Map<String, Integer> nodeWeights) {
+            this.nodeWeights = nodeWeights;
+            return this;
+        }
+
+        public Builder nodeWeigher(@Nullable Function<GaleraStatus, Integer> nodeWeigher) {
+            this.nodeWeigher = nodeWeigher;
+            return this;
+        }
+
+        public Builder singleWriter(boolean singleWriter) {
+            this.singleWriter = singleWriter;
+            return this;
+        }
+
+        public Builder writerFencingPeriod(long writerFencingPeriod) {
+            this.writerFencingPeriod = writerFencingPeriod;
+            return this;
+        }
+
+        public Builder readNodeSelectionPolicy(@Nullable ElectionNodePolicy readNodeSelectionPolicy) {
+            this.readNodeSelectionPolicy = readNodeSelectionPolicy;
+            return this;
+        }
+
+        public Builder writeNodeSelectionPolicy(@Nullable ElectionNodePolicy writeNodeSelectionPolicy) {
+            this.writeNodeSelectionPolicy = writeNodeSelectionPolicy;
+            return this;
+        }
+
+        public Builder writerSetSize(int writerSetSize) {
+            this.writerSetSize = writerSetSize;
+            return this;
+        }
+
+        public Builder maxConflictRate(double maxConflictRate) {
+            this.maxConflictRate = maxConflictRate;
+            return this;
+        }
+
+        public Builder conflictCooldown(long conflictCooldown) {
+            this.conflictCooldown = conflictCooldown;
+            return this;
+        }
+
+        public ClientSettings build() {
+            return new ClientSettings(this);
+        }
+    }
 }
@@ -10,9 +10,72 @@ public class DiscoverSettings {
      */
     public final boolean ignoreDonor;
 
+    /**
+     * Max number of nodes probed concurrently on each discovery cycle. 1 means the nodes are probed one after the other.
+     */
+    public final int discoveryThreads;
+
+    /**
+     * Max time in millis a single node status probe can take when probing concurrently. Zero means no deadline.
+     */
+    public final long probeTimeout;
+
+    /**
+     * Time in millis the connection pool of a downed node is kept before closing it. Zero means it is closed right away.
+     */
+    public final long quarantinePeriod;
+
+    /**
+     * Time in millis between two probes of an active node. It is never shorter than discoverPeriod.
+     */
+    public final long healthyProbePeriod;
+
+    /**
+     * Max time in millis between two probes of a downed node, which backs off exponentially from discoverPeriod.
+     * When it is not greater than discoverPeriod, downed nodes are probed on every discovery.
+     */
+    public final long maxDownedBackoff;
+
+    /**
+     * A synced node whose wsrep_local_recv_queue_avg is above this value is lagging. Zero disables the check.
+     */
+    public final double maxRecvQueueAvg;
+
+    /**
+     * A synced node whose wsrep_local_send_queue_avg is above this value is lagging. Zero disables the check.
+     */
+    public final double maxSendQueueAvg;
+
+    /**
+     * A synced node whose wsrep_flow_control_paused is above this fraction is lagging. Zero disables the check.
+     */
+    public final double maxFlowControlPaused;
+
+    /**
+     * When this flag is true, discovery is shared with the other clients of the same cluster.
+     */
+    public final boolean sharedClusterMonitor;
+
     public DiscoverSettings(long discoverPeriod, boolean ignoreDonor) {
-        this.discoverPeriod = discoverPeriod;
-        this.ignoreDonor = ignoreDonor;
+        this(newBuilder().discoverPeriod(discoverPeriod).ignoreDonor(ignoreDonor));
+    }
+
+    private DiscoverSettings(Builder builder) {
+        discoverPeriod = builder.discoverPeriod;
+        ignoreDonor = builder.ignoreDonor;
+        discoveryThreads = builder.discoveryThreads;
+        probeTimeout = builder.probeTimeout;
+        quarantinePeriod = builder.quarantinePeriod;
+        healthyProbePeriod = Math.max(builder.healthyProbePeriod, builder.discoverPeriod);
+        maxDownedBackoff = Math.max(builder.maxDownedBackoff, builder.discoverPeriod);
+        maxRecvQueueAvg = builder.maxRecvQueueAvg;
+        maxSendQueueAvg = builder.maxSendQueueAvg;
+        maxFlowControlPaused = builder.maxFlowControlPaused;
+        sharedClusterMonitor = builder.sharedClusterMonitor;
+    }
+
+    public static Builder newBuilder() {
+        return new Builder();
     }
 
     @Override
@@ -20,6 +83,91 @@ public class DiscoverSettings {
         return MoreObjects.toStringHelper(this)
                 .add("discoverPeriod", discoverPeriod)
                 .add("ignoreDonor", ignoreDonor)
+                .add("discoveryThreads", discoveryThreads)
+                .add("probeTimeout", probeTimeout)
+                .add("quarantinePeriod", quarantinePeriod)
+                .add("healthyProbePeriod", healthyProbePeriod)
+                .add("maxDownedBackoff", maxDownedBackoff)
+                .add("maxRecvQueueAvg", maxRecvQueueAvg)
+                .add("maxSendQueueAvg", maxSendQueueAvg)
+                .add("maxFlowControlPaused", maxFlowControlPaused)
+                .add("sharedClusterMonitor", sharedClusterMonitor)
                 .toString();
     }
+
+    public static final class Builder {
+        private long discoverPeriod;
+        private boolean ignoreDonor;
+        private int discoveryThreads = 1;
+        private long probeTimeout;
+        private long quarantinePeriod;
+        private long healthyProbePeriod;
+        private long maxDownedBackoff;
+        private double maxRecvQueueAvg;
+        private double maxSendQueueAvg;
+        private double maxFlowControlPaused;
+        private boolean sharedClusterMonitor;
+
+        private Builder() {
+        }
+
+        public Builder discoverPeriod(long discoverPeriod) {
+            this.discoverPeriod = discoverPeriod;
+            return this;
+        }
+
+        public Builder ignoreDonor(boolean ignoreDonor) {
+            this.ignoreDonor = ignoreDonor;
+            return this;
+        }
+
+        public Builder discoveryThreads(int discoveryThreads) {
+            this.discoveryThreads = discoveryThreads;
+            return this;
+        }
+
+        public Builder probeTimeout(long probeTimeout) {
+            this.probeTimeout = probeTimeout;
+            return this;
+        }
+
+        public Builder quarantinePeriod(long quarantinePeriod) {
+            this.quarantinePeriod = quarantinePeriod;
+            return this;
+        }
+
+        public Builder healthyProbePeriod(long healthyProbePeriod) {
+            this.healthyProbePeriod = healthyProbePeriod;
+            return this;
+        }
+
+        public Builder maxDownedBackoff(long maxDownedBackoff) {
+            this.maxDownedBackoff = maxDownedBackoff;
+            return this;
+        }
+
+        public Builder maxRecvQueueAvg(double maxRecvQueueAvg) {
+            this.maxRecvQueueAvg = maxRecvQueueAvg;
+            return this;
+        }
+
+        public Builder maxSendQueueAvg(double maxSendQueueAvg) {
+            this.maxSendQueueAvg = maxSendQueueAvg;
+            return this;
+        }
+
+        public Builder maxFlowControlPaused(double maxFlowControlPaused) {
+            this.maxFlowControlPaused = maxFlowControlPaused;
+            return this;
+        }
+
+        public Builder sharedClusterMonitor(boolean sharedClusterMonitor) {
+            this.sharedClusterMonitor = sharedClusterMonitor;
+            return this;
+        }
+
+        public DiscoverSettings build() {
+            return new DiscoverSettings(this);
+        }
+    }
 }
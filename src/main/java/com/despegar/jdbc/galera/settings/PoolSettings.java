@@ -4,6 +4,10 @@ import com.despegar.jdbc.galera.consistency.ConsistencyLevel;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Collections;
+import java.util.List;
 
 public class PoolSettings {
     public final Optional<String> poolName;
@@ -13,11 +17,27 @@ public class PoolSettings {
     public final long connectionTimeout;
     public final long readTimeout;
     public final long idleTimeout;
+    /**
+     * Time in millis a connection is kept before it is replaced. Zero means the pool default.
+     */
+    public final long maxLifetime;
     public final boolean autocommit;
     public final boolean readOnly;
     public final String isolationLevel;
     public final ConsistencyLevel consistencyLevel;
     public final boolean metricsEnabled;
+    /**
+     * Connections opened at once when the pool of a node is activated, before the node gets any traffic. Zero disables warm-up.
+     */
+    public final int warmUpConnections;
+    /**
+     * SQL prepared on each warm-up connection, so the statement cache of the connection is filled too.
+     */
+    public final List<String> warmUpStatements;
+    /**
+     * Max time in millis the warm-up of a node can take.
+     */
+    public final long warmUpTimeout;
 
     private PoolSettings(Builder builder) {
         Preconditions.checkArgument(builder.minConnectionsIdlePerHost >= 1, "Min connections per host must be greater or equal than 1. It was: %s",
@@ -29,12 +49,16 @@ public class PoolSettings {
         connectionTimeout = builder.connectionTimeout;
         readTimeout = builder.readTimeout;
         idleTimeout = builder.idleTimeout;
+        maxLifetime = builder.maxLifetime;
         autocommit = builder.autocommit;
         readOnly = builder.readOnly;
         isolationLevel = builder.isolationLevel;
         consistencyLevel = builder.consistencyLevel;
         metricsEnabled = builder.metricsEnabled;
         poolName = builder.poolName;
+        warmUpConnections = Math.min(builder.warmUpConnections, maxConnectionsPerHost);
+        warmUpStatements = ImmutableList.copyOf(builder.warmUpStatements);
+        warmUpTimeout = builder.warmUpTimeout;
     }
 
     public static Builder newBuilder() {
@@ -52,26 +76,34 @@ public class PoolSettings {
                 .add("connectionTimeout", connectionTimeout)
                 .add("readTimeout", readTimeout)
                 .add("idleTimeout", idleTimeout)
+                .add("maxLifetime", maxLifetime)
                 .add("autocommit", autocommit)
                 .add("readOnly", readOnly)
                 .add("isolationLevel", isolationLevel)
                 .add("consistencyLevel", consistencyLevel)
+                .add("warmUpConnections", warmUpConnections)
+                .add("warmUpStatements", warmUpStatements)
+                .add("warmUpTimeout", warmUpTimeout)
                 .toString();
     }
 
     public static final class Builder {
         private int maxConnectionsPerHost;
-        private Optional<String> poolName;
-        private int minConnectionsIdlePerHost;
+        private Optional<String> poolName = Optional.absent();
+        private int minConnectionsIdlePerHost = 1;
         private long connectTimeout;
         private long connectionTimeout;
         private long readTimeout;
         private long idleTimeout;
+        private long maxLifetime;
         private boolean autocommit;
         private boolean readOnly;
         private String isolationLevel;
         private ConsistencyLevel consistencyLevel;
         private boolean metricsEnabled;
+        private int warmUpConnections;
+        private List<String> warmUpStatements = Collections.emptyList();
+        private long warmUpTimeout = 5000;
 
         private Builder() {
         }
@@ -106,6 +138,11 @@ public class PoolSettings {
             return this;
         }
 
+        public Builder maxLifetime(long maxLifetime) {
+            this.maxLifetime = maxLifetime;
+            return this;
+        }
+
         public Builder autocommit(boolean autocommit) {
             this.autocommit = autocommit;
             return this;
@@ -140,6 +177,21 @@ public class PoolSettings {
             return this;
         }
 
+        public Builder warmUpConnections(int warmUpConnections) {
+            this.warmUpConnections = warmUpConnections;
+            return this;
+        }
+
+        public Builder warmUpStatements(List<String> warmUpStatements) {
+            this.warmUpStatements = warmUpStatements;
+            return this;
+        }
+
+        public Builder warmUpTimeout(long warmUpTimeout) {
+            this.warmUpTimeout = warmUpTimeout;
+            return this;
+        }
+
         public PoolSettings build() {
             return new PoolSettings(this);
         }
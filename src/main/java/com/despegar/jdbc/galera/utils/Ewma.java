@@ -0,0 +1,64 @@
+package com.despegar.jdbc.galera.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lock-free exponentially weighted moving average over time: the weight of the previous average decays with the time elapsed
+ * since its last sample, so the average reflects roughly the last decay time whatever the sampling rate is.
+ * The average also fades towards zero while no sample arrives, so a value no longer confirmed by samples is forgotten.
+ */
+public final class Ewma {
+    private final double decayTimeNanos;
+    private final AtomicReference<Sample> last = new AtomicReference<Sample>();
+
+    public Ewma(long decayTime, TimeUnit unit) {
+        this.decayTimeNanos = unit.toNanos(decayTime);
+    }
+
+    public void update(double value) {
+        update(value, System.nanoTime());
+    }
+
+    void update(double value, long nanoTime) {
+        while (true) {
+            Sample previous = last.get();
+            Sample next;
+            if (previous == null) {
+                next = new Sample(value, nanoTime);
+            } else {
+                double weight = weight(nanoTime - previous.nanoTime);
+                next = new Sample(previous.value * weight + value * (1 - weight), nanoTime);
+            }
+            if (last.compareAndSet(previous, next)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return the average, or zero if there was no sample yet
+     */
+    public double get() {
+        return get(System.nanoTime());
+    }
+
+    double get(long nanoTime) {
+        Sample sample = last.get();
+        return (sample == null) ? 0 : sample.value * weight(nanoTime - sample.nanoTime);
+    }
+
+    private double weight(long elapsedNanos) {
+        return Math.exp(-Math.max(0, elapsedNanos) / decayTimeNanos);
+    }
+
+    private static final class Sample {
+        private final double value;
+        private final long nanoTime;
+
+        private Sample(double value, long nanoTime) {
+            this.value = value;
+            this.nanoTime = nanoTime;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.despegar.jdbc.galera.utils;
+
+import java.sql.SQLException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientConnectionException;
+
+/**
+ * Classifies the errors galera reports on client connections.
+ */
+public final class GaleraErrors {
+
+    /**
+     * ER_LOCK_DEADLOCK, also reported when a transaction fails certification or is aborted by a replicated one.
+     */
+    public static final int DEADLOCK_ERROR_CODE = 1213;
+    public static final String DEADLOCK_SQL_STATE = "40001";
+
+    /**
+     * Reported, with error code 1047, by a node that is not synced with the primary component, as while it joins.
+     */
+    public static final String NODE_NOT_PREPARED_MESSAGE = "WSREP has not yet prepared node";
+    public static final String CONNECTION_EXCEPTION_SQL_STATE_CLASS = "08";
+
+    private GaleraErrors() {
+    }
+
+    /**
+     * @return true if the exception, or one of its causes, is a deadlock, which on galera is usually a certification conflict
+     */
+    public static boolean isDeadlock(SQLException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException) {
+                SQLException sqlException = (SQLException) cause;
+                if (sqlException.getErrorCode() == DEADLOCK_ERROR_CODE || DEADLOCK_SQL_STATE.equals(sqlException.getSQLState())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the exception, or one of its causes, tells the node is not prepared for application use
+     */
+    public static boolean isNodeNotPrepared(SQLException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains(NODE_NOT_PREPARED_MESSAGE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the exception, or one of its causes, is a connection exception, after which the outcome of the
+     * transaction is unknown
+     */
+    public static boolean isConnectionFailure(SQLException exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLRecoverableException || cause instanceof SQLTransientConnectionException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                String sqlState = ((SQLException) cause).getSQLState();
+                if (sqlState != null && sqlState.startsWith(CONNECTION_EXCEPTION_SQL_STATE_CLASS)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
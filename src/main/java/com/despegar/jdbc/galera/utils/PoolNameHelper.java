@@ -5,7 +5,7 @@ import com.google.common.base.Optional;
 public class PoolNameHelper {
 
     public static final String DEFAULT_POOL_PREFIX_NAME = "hikari-pool";
-    public static final String STATUS_POOL_PREFIX_NAME = "status-";
+    public static final String WRITE_POOL_SUFFIX_NAME = ".write";
 
     /**
      * Because of errors when hikari pool name have ':' character, we remove the last part of the node name (:port).
@@ -20,8 +20,8 @@ public class PoolNameHelper {
         return poolName.or(DEFAULT_POOL_PREFIX_NAME) + "." + nodeNameWithoutPort(node);
     }
 
-    public static String getFullStatusPoolName(Optional<String> poolName, String node) {
-        return STATUS_POOL_PREFIX_NAME + getFullPoolName(poolName, node);
+    public static String getFullWritePoolName(Optional<String> poolName, String node) {
+        return getFullPoolName(poolName, node) + WRITE_POOL_SUFFIX_NAME;
     }
 
 }
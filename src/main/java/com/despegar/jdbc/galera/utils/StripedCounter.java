@@ -0,0 +1,54 @@
+package com.despegar.jdbc.galera.utils;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free counter striped over cells padded to their own cache line, so threads updating it concurrently do not contend on
+ * a single atomic. The cell is chosen by thread id, and a decrement may land on a different cell than its increment.
+ * {@link #sum()} is not an atomic snapshot while the counter is being updated.
+ */
+public final class StripedCounter {
+    private static final int MAX_STRIPES = 64;
+    /**
+     * Longs per cell, 128 bytes keep adjacent cells out of the same cache line and of its prefetched pair.
+     */
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    public StripedCounter() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    public StripedCounter(int stripes) {
+        int size = 1;
+        while (size < Math.min(stripes, MAX_STRIPES)) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.cells = new AtomicLongArray(size * PADDING);
+    }
+
+    public void increment() {
+        cells.incrementAndGet(cellIndex());
+    }
+
+    public void decrement() {
+        cells.decrementAndGet(cellIndex());
+    }
+
+    public long sum() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += PADDING) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+
+    private int cellIndex() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id * 0x9E3779B97F4A7C15L >>> 32);
+        return (hash & mask) * PADDING;
+    }
+}
@@ -1,10 +1,27 @@
 package com.despegar.jdbc.galera;
 
+import com.despegar.jdbc.galera.consistency.CausalityToken;
+import com.despegar.jdbc.galera.consistency.ReplicationLagBound;
+import com.despegar.jdbc.galera.listener.GaleraClientLoggingListener;
+import com.despegar.jdbc.galera.policies.ElectionNodePolicy;
+import com.despegar.jdbc.galera.policies.MasterSortingNodesPolicy;
+import com.despegar.jdbc.galera.policies.SlowStart;
+import com.google.common.base.Function;
 import org.hamcrest.MatcherAssert;
+import org.junit.Assert;
 import org.junit.Test;
 
 import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 
+import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.notNullValue;
 
@@ -56,4 +73,622 @@ public class GaleraClientTest {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void getConnection_failedNode_failsOverToAnotherNode() throws Exception {
+
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node1, node2")
+                .jdbcUrlSeparator("_")
+                .database("failover;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .build();
+
+        try {
+            // the node is still active but its pool is gone, as when it fails before discovery notices it
+            instance.nodes.get("node1").onDown();
+
+            final Connection connection = instance.getConnection(new MasterSortingNodesPolicy());
+            try {
+                MatcherAssert.assertThat(connection.getMetaData().getURL(), containsString("node2_failover"));
+            } finally {
+                connection.close();
+            }
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void getConnectionAfter_token_choosesNodeThatAppliedTheWrite() throws Exception {
+
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node1, node2")
+                .jdbcUrlSeparator("_")
+                .database("causality;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .build();
+
+        try {
+            // test statuses carry no wsrep_last_committed, only the node the token was taken on is known to have applied it
+            final Connection connection = instance.getConnectionAfter(new CausalityToken(5, "node2"), new MasterSortingNodesPolicy());
+            try {
+                MatcherAssert.assertThat(connection.getMetaData().getURL(), containsString("node2_causality"));
+            } finally {
+                connection.close();
+            }
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void getWriteConnection_singleWriter_fencesNewWriterAfterWriterGoesDown() throws Exception {
+
+        final List<String> elections = new CopyOnWriteArrayList<String>();
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node2, node1, node3")
+                .jdbcUrlSeparator("_")
+                .database("writer;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .singleWriter(true)
+                .writerFencingPeriod(200)
+                .listener(new GaleraClientLoggingListener() {
+                    @Override
+                    public void onElectingWriter(String node, String previousWriter) {
+                        elections.add(previousWriter + "->" + node);
+                    }
+                })
+                .build();
+
+        try {
+            // test statuses carry no wsrep_local_index, the writer is the first active node by name
+            assertWriteConnectionFrom(instance, "node1_writer");
+
+            instance.down("node1", "test");
+            try {
+                instance.getWriteConnection();
+                Assert.fail("A new writer must not take writes within the fencing period");
+            } catch (NoActiveNodeException expected) {
+                MatcherAssert.assertThat(expected.getMessage(), containsString("node2"));
+            }
+
+            awaitWriteConnectionFrom(instance, "node2_writer", 5000);
+            MatcherAssert.assertThat(elections, equalTo(Arrays.asList("null->node1", "node1->node2")));
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void activate_warmUp_publishesTheNodeOnceWarmedUpOffTheCallingThread() throws Exception {
+
+        final List<String> activations = new CopyOnWriteArrayList<String>();
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node1, node2")
+                .jdbcUrlSeparator("_")
+                .database("warm;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .connectionTimeout(1000)
+                .warmUpConnections(2)
+                .warmUpStatements("SELECT 1")
+                .listener(new GaleraClientLoggingListener() {
+                    @Override
+                    public void onActivatingNode(String node) {
+                        activations.add(Thread.currentThread().getName());
+                    }
+                })
+                .build();
+
+        try {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (instance.getTopology().size() < 2 && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            MatcherAssert.assertThat(instance.getTopology().size(), equalTo(2));
+
+            // the first node is published right away since no node is active, the second one once warmed up
+            MatcherAssert.assertThat(activations.get(0), equalTo(Thread.currentThread().getName()));
+            MatcherAssert.assertThat(activations.get(1), containsString("galera-monitor"));
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void getWriteConnection_writePool_isSeparateFromReadPool() throws Exception {
+
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node2, node1, node3")
+                .jdbcUrlSeparator("_")
+                .database("split;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .readOnly(true)
+                .maxConnectionsPerHost(1)
+                .connectionTimeout(1000)
+                .writeMaxConnectionsPerHost(1)
+                .writerSetSize(1)
+                .build();
+
+        try {
+            MatcherAssert.assertThat(instance.getWriterSet().nodeNames(), equalTo(Arrays.asList("node1")));
+
+            // the only read connection of node1 is borrowed, the write connection comes from its own pool
+            final Connection readConnection = instance.nodes.get("node1").getConnection();
+            try {
+                assertWriteConnectionFrom(instance, "node1_split");
+            } finally {
+                readConnection.close();
+            }
+            assertWritePools(instance, "node1");
+
+            instance.down("node1", "test");
+            assertWritePools(instance, "node2");
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void getWriteConnection_singleWriter_onlyTheWriterHasAWritePool() throws Exception {
+
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node2, node1")
+                .jdbcUrlSeparator("_")
+                .database("singlepool;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .connectionTimeout(1000)
+                .writeMaxConnectionsPerHost(1)
+                .singleWriter(true)
+                .build();
+
+        try {
+            assertWritePools(instance, "node1");
+            assertWriteConnectionFrom(instance, "node1_singlepool");
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void getWriterSet_conflictRateAboveMax_narrowsTheWriterSet() throws Exception {
+
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node1, node2, node3")
+                .jdbcUrlSeparator("_")
+                .database("conflicts;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .maxConflictRate(0.01)
+                .build();
+
+        try {
+            MatcherAssert.assertThat(instance.getWriterSet().size(), equalTo(3));
+
+            for (GaleraNode galeraNode : instance.nodes.values()) {
+                galeraNode.refreshStatus(GaleraStatus.buildTestStatusOk(galeraNode.node, 1000));
+                final Connection connection = galeraNode.getConnection();
+                try {
+                    for (int i = 0; i < 10; i++) {
+                        instance.recordFailure(connection, new SQLException("Deadlock found when trying to get lock", "40001", 1213));
+                    }
+                } finally {
+                    connection.close();
+                }
+            }
+            for (GaleraNode galeraNode : instance.nodes.values()) {
+                galeraNode.refreshStatus(GaleraStatus.buildTestStatusOk(galeraNode.node, 1020));
+            }
+            instance.updateWriterSet();
+
+            MatcherAssert.assertThat(instance.getWriterSet().nodeNames(), equalTo(Arrays.asList("node1")));
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void execute_certificationConflict_retriesOnAnotherNode() throws Exception {
+
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node1, node2")
+                .jdbcUrlSeparator("_")
+                .database("execute;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .build();
+        final List<String> urls = new CopyOnWriteArrayList<String>();
+        final RetryPolicy retryPolicy = RetryPolicy.newBuilder().retryOnAnotherNode(true).build();
+
+        try {
+            final String result = instance.execute(new TransactionCallback<String>() {
+                @Override
+                public String doInTransaction(Connection connection) throws SQLException {
+                    MatcherAssert.assertThat(connection.getAutoCommit(), equalTo(false));
+                    urls.add(connection.getMetaData().getURL());
+                    if (urls.size() == 1) {
+                        throw new SQLException("Deadlock found when trying to get lock", "40001", 1213);
+                    }
+                    return "committed";
+                }
+            }, retryPolicy);
+
+            MatcherAssert.assertThat(result, equalTo("committed"));
+            MatcherAssert.assertThat(urls.size(), equalTo(2));
+            Assert.assertNotEquals(urls.get(0), urls.get(1));
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void execute_singleWriter_retriesWhileNewWriterIsFencedIn() throws Exception {
+
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node1, node2")
+                .jdbcUrlSeparator("_")
+                .database("fencedexecute;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .singleWriter(true)
+                .writerFencingPeriod(200)
+                .build();
+        final List<String> urls = new CopyOnWriteArrayList<String>();
+        final RetryPolicy retryPolicy = RetryPolicy.newBuilder()
+                .maxAttempts(20)
+                .baseBackoff(100, TimeUnit.MILLISECONDS)
+                .maxBackoff(100, TimeUnit.MILLISECONDS)
+                .build();
+
+        try {
+            assertWriteConnectionFrom(instance, "node1_fencedexecute");
+            instance.down("node1", "test");
+            Assert.assertNull(instance.getWriter());
+
+            String result = instance.execute(new TransactionCallback<String>() {
+                @Override
+                public String doInTransaction(Connection connection) throws SQLException {
+                    urls.add(connection.getMetaData().getURL());
+                    return "committed";
+                }
+            }, retryPolicy);
+
+            MatcherAssert.assertThat(result, equalTo("committed"));
+            MatcherAssert.assertThat(urls.size(), equalTo(1));
+            MatcherAssert.assertThat(urls.get(0), containsString(instance.getWriter() + "_fencedexecute"));
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void execute_errorNotRetried_isThrownOnFirstAttempt() throws Exception {
+
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:")
+                .seeds("mem")
+                .jdbcUrlSeparator(":")
+                .database("execute;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .build();
+        final List<String> attempts = new CopyOnWriteArrayList<String>();
+
+        try {
+            instance.execute(new TransactionCallback<Void>() {
+                @Override
+                public Void doInTransaction(Connection connection) throws SQLException {
+                    attempts.add(connection.getMetaData().getURL());
+                    throw new SQLException("Duplicate entry", "23000", 1062);
+                }
+            }, RetryPolicy.newBuilder().build());
+            Assert.fail("Duplicate entry should have been thrown");
+        } catch (SQLException e) {
+            MatcherAssert.assertThat(e.getErrorCode(), equalTo(1062));
+            MatcherAssert.assertThat(attempts.size(), equalTo(1));
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void execute_connectionFailure_requestsDiscoveryOfTheNode() throws Exception {
+
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node1")
+                .jdbcUrlSeparator("_")
+                .database("linkfailure;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .build();
+        final GaleraNode galeraNode = instance.nodes.get("node1");
+        final GaleraStatus statusBefore = galeraNode.getLastStatus();
+
+        try {
+            try {
+                instance.execute(new TransactionCallback<Void>() {
+                    @Override
+                    public Void doInTransaction(Connection connection) throws SQLException {
+                        throw new SQLException("Communications link failure", "08S01");
+                    }
+                }, RetryPolicy.newBuilder().build());
+                Assert.fail("The connection failure should be thrown");
+            } catch (SQLException e) {
+                MatcherAssert.assertThat(e.getSQLState(), equalTo("08S01"));
+            }
+
+            // the requested discovery probes the node again
+            long deadline = System.currentTimeMillis() + 5000;
+            while (galeraNode.getLastStatus() == statusBefore && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            Assert.assertNotSame(statusBefore, galeraNode.getLastStatus());
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void getConnectionWithinLag_comparesNodesWithTheClusterWhenTheirStatusWasTaken() throws Exception {
+
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node1, node2")
+                .jdbcUrlSeparator("_")
+                .database("lag;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .build();
+
+        try {
+            instance.refreshStatus("node1", syncedStatus("node1,node2", 1000, "wsrep_last_committed", "100"));
+            instance.refreshStatus("node2", syncedStatus("node1,node2", 1000, "wsrep_last_committed", "100"));
+            instance.refreshStatus("node1", syncedStatus("node1,node2", 5000, "wsrep_last_committed", "200"));
+
+            // the status of node2 was taken before node1 moved ahead, it was not lagging then
+            instance.refreshStatus("node2", syncedStatus("node1,node2", 2000, "wsrep_last_committed", "100"));
+            assertConnectionWithinLag(instance, ReplicationLagBound.transactions(10), "node2_lag");
+
+            // taken after node1 moved ahead, node2 is 50 transactions behind
+            instance.refreshStatus("node2", syncedStatus("node1,node2", 6000, "wsrep_last_committed", "150"));
+            assertConnectionWithinLag(instance, ReplicationLagBound.transactions(10), "node1_lag");
+            assertConnectionWithinLag(instance, ReplicationLagBound.transactions(100), "node2_lag");
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void getConnection_laggingNode_isLeftOutOfTheSelection() throws Exception {
+
+        final GaleraClient instance = laggingClient("lagging");
+
+        try {
+            instance.refreshStatus("node1", syncedStatus("node1,node2", 1000, "wsrep_flow_control_paused", "0.9"));
+            MatcherAssert.assertThat(instance.getTopology().nodeNames(), equalTo(Arrays.asList("node2")));
+            for (int i = 0; i < 4; i++) {
+                assertConnectionFrom(instance, "node2_lagging");
+            }
+
+            instance.refreshStatus("node1", syncedStatus("node1,node2", 2000, "wsrep_flow_control_paused", "0.1"));
+            instance.refreshStatus("node2", syncedStatus("node1,node2", 2000, "wsrep_local_recv_queue_avg", "12.5"));
+            MatcherAssert.assertThat(instance.getTopology().nodeNames(), equalTo(Arrays.asList("node1")));
+            assertConnectionFrom(instance, "node1_lagging");
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void getConnection_everyNodeLagging_fallsBackToAllActiveNodes() throws Exception {
+
+        final GaleraClient instance = laggingClient("alllagging");
+
+        try {
+            instance.refreshStatus("node1", syncedStatus("node1,node2", 1000, "wsrep_flow_control_paused", "0.9"));
+            instance.refreshStatus("node2", syncedStatus("node1,node2", 1000, "wsrep_local_recv_queue_avg", "12.5"));
+            MatcherAssert.assertThat(instance.getTopology().nodeNames(), equalTo(Arrays.asList("node1", "node2")));
+            assertConnectionFrom(instance, "_alllagging");
+
+            instance.refreshStatus("node2", syncedStatus("node1,node2", 2000, "wsrep_local_recv_queue_avg", "0.5"));
+            MatcherAssert.assertThat(instance.getTopology().nodeNames(), equalTo(Arrays.asList("node2")));
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    private static GaleraClient laggingClient(String database) {
+        return GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node1, node2")
+                .jdbcUrlSeparator("_")
+                .database(database + ";MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .maxRecvQueueAvg(10)
+                .maxFlowControlPaused(0.5)
+                .build();
+    }
+
+    private static void assertConnectionFrom(GaleraClient instance, String url) throws Exception {
+        final Connection connection = instance.getConnection();
+        try {
+            MatcherAssert.assertThat(connection.getMetaData().getURL(), containsString(url));
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void getConnection_slowStart_newlyActivatedNodeGetsFewerConnections() throws Exception {
+
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node1, node2")
+                .jdbcUrlSeparator("_")
+                .database("slowstart;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .slowStart(SlowStart.linear(300, TimeUnit.MILLISECONDS))
+                .build();
+
+        try {
+            // both seeds leave their window, then node2 comes back
+            Thread.sleep(350);
+            instance.down("node2", "test");
+            instance.refreshStatus("node2", syncedStatus("node1,node2", 1000));
+            MatcherAssert.assertThat(instance.getTopology().nodeNames(), equalTo(Arrays.asList("node1", "node2")));
+
+            int node2Connections = 0;
+            for (int i = 0; i < 100; i++) {
+                final Connection connection = instance.getConnection();
+                try {
+                    if (connection.getMetaData().getURL().contains("node2_slowstart")) {
+                        node2Connections++;
+                    }
+                } finally {
+                    connection.close();
+                }
+            }
+            // round robin alone would give node2 half of them
+            MatcherAssert.assertThat(node2Connections < 25, equalTo(true));
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    @Test
+    public void nodeWeigher_negativeWeight_keepsTheCurrentWeight() throws Exception {
+
+        final GaleraClient instance = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .seeds("node1, node2")
+                .jdbcUrlSeparator("_")
+                .database("weigher;MODE=MySQL;DB_CLOSE_ON_EXIT=FALSE")
+                .user("sa")
+                .nodeWeigher(new Function<GaleraStatus, Integer>() {
+                    @Override
+                    public Integer apply(GaleraStatus status) {
+                        return status.localIndex();
+                    }
+                })
+                .build();
+
+        try {
+            instance.refreshStatus("node1", syncedStatus("node1,node2", 1000, "wsrep_local_index", "3"));
+            MatcherAssert.assertThat(instance.getNodeWeight("node1"), equalTo(3));
+
+            // no wsrep_local_index, the weigher gives -1
+            instance.refreshStatus("node1", syncedStatus("node1,node2", 2000));
+            MatcherAssert.assertThat(instance.getNodeWeight("node1"), equalTo(3));
+        } finally {
+            instance.shutdown();
+        }
+
+    }
+
+    /**
+     * The last node qualified is chosen, so a connection from node2 tells it qualified.
+     */
+    private static void assertConnectionWithinLag(GaleraClient instance, ReplicationLagBound lagBound, String url) throws Exception {
+        final Connection connection = instance.getConnectionWithinLag(lagBound, new ElectionNodePolicy() {
+            @Override
+            public String chooseNode(List<String> activeNodes) {
+                return activeNodes.get(activeNodes.size() - 1);
+            }
+
+            @Override
+            public String getName() {
+                return "Last";
+            }
+        });
+        try {
+            MatcherAssert.assertThat(connection.getMetaData().getURL(), containsString(url));
+        } finally {
+            connection.close();
+        }
+    }
+
+    /**
+     * @param variables more status variables, as name and value pairs
+     */
+    private static GaleraStatus syncedStatus(String incomingAddresses, long observedAt, String... variables) {
+        Map<String, String> statusMap = new HashMap<String, String>();
+        statusMap.put("wsrep_cluster_status", "Primary");
+        statusMap.put("wsrep_local_state_comment", "Synced");
+        statusMap.put("wsrep_incoming_addresses", incomingAddresses);
+        for (int i = 0; i < variables.length; i += 2) {
+            statusMap.put(variables[i], variables[i + 1]);
+        }
+        return new GaleraStatus(statusMap, observedAt);
+    }
+
+    private static void assertWritePools(GaleraClient instance, String... nodes) {
+        List<String> withWritePool = new ArrayList<String>();
+        for (GaleraNode galeraNode : instance.nodes.values()) {
+            if (galeraNode.hasWritePool()) {
+                withWritePool.add(galeraNode.node);
+            }
+        }
+        MatcherAssert.assertThat(withWritePool, equalTo(Arrays.asList(nodes)));
+    }
+
+    /**
+     * Polls until a write connection is taken from the node or the timeout passes.
+     */
+    private static void awaitWriteConnectionFrom(GaleraClient instance, String url, long timeout) throws Exception {
+        long deadline = System.currentTimeMillis() + timeout;
+        while (true) {
+            try {
+                assertWriteConnectionFrom(instance, url);
+                return;
+            } catch (NoActiveNodeException e) {
+                if (System.currentTimeMillis() >= deadline) {
+                    throw e;
+                }
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static void assertWriteConnectionFrom(GaleraClient instance, String url) throws Exception {
+        final Connection connection = instance.getWriteConnection();
+        try {
+            MatcherAssert.assertThat(connection.getMetaData().getURL(), containsString(url));
+        } finally {
+            connection.close();
+        }
+    }
+
+}
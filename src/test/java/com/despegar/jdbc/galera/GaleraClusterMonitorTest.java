@@ -0,0 +1,133 @@
+package com.despegar.jdbc.galera;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+public class GaleraClusterMonitorTest {
+    private static final String STATUS_DATABASE = "monitorStatus";
+
+    private Connection statusConnection;
+
+    @Before
+    public void initialize() throws SQLException {
+        // H2 has no GLOBAL_STATUS in its information_schema, the status of node1 is faked in a performance_schema schema.
+        statusConnection = DriverManager.getConnection("jdbc:h2:mem:node1_" + STATUS_DATABASE, "sa", "");
+        Statement statement = statusConnection.createStatement();
+        try {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS PERFORMANCE_SCHEMA");
+            statement.execute("CREATE TABLE PERFORMANCE_SCHEMA.GLOBAL_STATUS (VARIABLE_NAME VARCHAR(64), VARIABLE_VALUE VARCHAR(1024))");
+            statement.execute("CREATE TABLE PERFORMANCE_SCHEMA.GLOBAL_VARIABLES (VARIABLE_NAME VARCHAR(64), VARIABLE_VALUE VARCHAR(1024))");
+            statement.execute("INSERT INTO PERFORMANCE_SCHEMA.GLOBAL_STATUS VALUES ('wsrep_cluster_status', 'Primary')");
+            statement.execute("INSERT INTO PERFORMANCE_SCHEMA.GLOBAL_STATUS VALUES ('wsrep_local_state_comment', 'Synced')");
+            statement.execute("INSERT INTO PERFORMANCE_SCHEMA.GLOBAL_STATUS VALUES ('wsrep_incoming_addresses', 'node1')");
+            statement.execute("INSERT INTO PERFORMANCE_SCHEMA.GLOBAL_VARIABLES VALUES ('wsrep_sync_wait', '0')");
+            statement.execute("SET QUERY_STATISTICS TRUE");
+        } finally {
+            statement.close();
+        }
+    }
+
+    @After
+    public void shutdown() throws SQLException {
+        statusConnection.close();
+    }
+
+    @Test
+    public void clientsOfTheSameClusterShareTheMonitor() throws Exception {
+        GaleraClient first = newClient(STATUS_DATABASE, true);
+        GaleraClient second = newClient("otherSchema", true);
+        GaleraClusterMonitor monitor = first.getClusterMonitor();
+        try {
+            Assert.assertTrue(monitor.isShared());
+            Assert.assertSame(monitor, second.getClusterMonitor());
+            Assert.assertEquals(2, monitor.subscriberCount());
+            Assert.assertEquals(1, second.getTopology().size());
+
+            first.shutdown();
+            Assert.assertEquals(1, monitor.subscriberCount());
+            Connection connection = second.getConnection();
+            connection.close();
+        } finally {
+            first.shutdown();
+            second.shutdown();
+        }
+        Assert.assertEquals(0, monitor.subscriberCount());
+    }
+
+    @Test
+    public void clientsDoNotShareTheMonitorByDefault() throws Exception {
+        GaleraClient first = newClient(STATUS_DATABASE, false);
+        GaleraClient second = newClient(STATUS_DATABASE, false);
+        try {
+            Assert.assertFalse(first.getClusterMonitor().isShared());
+            Assert.assertNotSame(first.getClusterMonitor(), second.getClusterMonitor());
+            Assert.assertEquals(1, first.getTopology().size());
+        } finally {
+            first.shutdown();
+            second.shutdown();
+        }
+    }
+
+    @Test
+    public void sharedMonitorQueriesTheNodeOncePerCycleUnlessForced() throws Exception {
+        GaleraClient first = newClient(STATUS_DATABASE, true, 60000);
+        GaleraClient second = newClient("otherSchema", true, 60000);
+        try {
+            // a forced probe skips the shared status
+            int queries = statusQueries();
+            first.nodes.get("node1").refreshStatus(true);
+            Assert.assertEquals(queries + 1, statusQueries());
+
+            // a cycle of both clients queries the node once
+            first.nodes.get("node1").refreshStatus();
+            second.nodes.get("node1").refreshStatus();
+            Assert.assertEquals(queries + 1, statusQueries());
+
+            second.nodes.get("node1").refreshStatus(true);
+            Assert.assertEquals(queries + 2, statusQueries());
+        } finally {
+            first.shutdown();
+            second.shutdown();
+        }
+    }
+
+    /**
+     * @return status queries run on node1, from the H2 query statistics
+     */
+    private int statusQueries() throws SQLException {
+        Statement statement = statusConnection.createStatement();
+        try {
+            ResultSet resultSet = statement.executeQuery("SELECT COALESCE(SUM(EXECUTION_COUNT), 0) FROM INFORMATION_SCHEMA.QUERY_STATISTICS"
+                                                         + " WHERE SQL_STATEMENT LIKE 'SELECT VARIABLE_NAME%'");
+            resultSet.next();
+            return resultSet.getInt(1);
+        } finally {
+            statement.close();
+        }
+    }
+
+    private static GaleraClient newClient(String database, boolean sharedClusterMonitor) {
+        return newClient(database, sharedClusterMonitor, 1000);
+    }
+
+    private static GaleraClient newClient(String database, boolean sharedClusterMonitor, long discoverPeriod) {
+        return GaleraClient.newBuilder()
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .jdbcUrlSeparator("_")
+                .seeds("node1")
+                .database(database)
+                .user("sa")
+                .discoverPeriod(discoverPeriod)
+                .connectionTimeout(1000)
+                .sharedClusterMonitor(sharedClusterMonitor)
+                .build();
+    }
+}
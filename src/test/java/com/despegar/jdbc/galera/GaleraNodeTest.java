@@ -0,0 +1,113 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.settings.PoolSettings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+public class GaleraNodeTest {
+    private GaleraNode galeraNode;
+
+    @Before
+    public void initialize() {
+        GaleraDB galeraDB = new GaleraDB("galeraNodeTest;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "", "jdbc:h2:", ":");
+        PoolSettings poolSettings = PoolSettings.newBuilder()
+                .minConnectionsIdlePerHost(1)
+                .maxConnectionsPerHost(2)
+                .connectionTimeout(1000)
+                .isolationLevel("TRANSACTION_READ_COMMITTED")
+                .build();
+        galeraNode = new GaleraNode("mem", galeraDB, poolSettings, poolSettings, true);
+    }
+
+    @After
+    public void shutdown() {
+        galeraNode.shutdown();
+    }
+
+    @Test
+    public void quarantinedPoolIsReusedOnActivation() throws Exception {
+        galeraNode.onActivate();
+        Connection connection = galeraNode.getConnection();
+        Connection physicalConnection = connection.unwrap(Connection.class);
+        connection.close();
+
+        galeraNode.onQuarantine();
+        Assert.assertTrue(galeraNode.isQuarantineExpired(0));
+
+        galeraNode.onActivate();
+        Assert.assertFalse(galeraNode.isQuarantineExpired(0));
+
+        connection = galeraNode.getConnection();
+        try {
+            Assert.assertSame(physicalConnection, connection.unwrap(Connection.class));
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void expiredQuarantineClosesThePool() throws Exception {
+        galeraNode.onActivate();
+        galeraNode.onQuarantine();
+        Assert.assertFalse(galeraNode.isQuarantineExpired(60000));
+
+        galeraNode.onDown();
+        Assert.assertFalse(galeraNode.isQuarantineExpired(0));
+    }
+
+    @Test
+    public void activationWarmsUpConnectionsInTheBackground() throws Exception {
+        GaleraDB galeraDB = new GaleraDB("warmUpTest;DB_CLOSE_DELAY=-1", "sa", "", "jdbc:h2:mem:", "_");
+        PoolSettings poolSettings = PoolSettings.newBuilder()
+                .minConnectionsIdlePerHost(1)
+                .maxConnectionsPerHost(4)
+                .connectionTimeout(1000)
+                .isolationLevel("TRANSACTION_READ_COMMITTED")
+                .warmUpConnections(3)
+                .warmUpStatements(Arrays.asList("SELECT 1"))
+                .build();
+        GaleraNode warmedNode = new GaleraNode("node1", galeraDB, poolSettings, poolSettings, true);
+        Connection sessions = DriverManager.getConnection("jdbc:h2:mem:node1_warmUpTest", "sa", "");
+        try {
+            Assert.assertEquals(3, (int) warmedNode.onActivate().get());
+
+            Statement statement = sessions.createStatement();
+            ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM INFORMATION_SCHEMA.SESSIONS");
+            resultSet.next();
+            Assert.assertTrue(resultSet.getInt(1) - 1 >= 3);
+            statement.close();
+        } finally {
+            warmedNode.shutdown();
+            sessions.close();
+        }
+    }
+
+    @Test
+    public void deadlocksSeenOnConnectionsRaiseTheConflictRate() throws Exception {
+        galeraNode.onActivate();
+        galeraNode.refreshStatus(GaleraStatus.buildTestStatusOk("mem", 1000));
+        Assert.assertEquals(0, galeraNode.getConflictRate(), 0);
+
+        InFlightConnection connection = (InFlightConnection) galeraNode.getConnection();
+        try {
+            SQLException deadlock = new SQLException("Deadlock found when trying to get lock", "40001", 1213);
+            connection.recordFailure(deadlock);
+            connection.recordFailure(deadlock);
+            connection.recordFailure(new SQLException("Duplicate entry", "23000", 1062));
+        } finally {
+            connection.close();
+        }
+        galeraNode.refreshStatus(GaleraStatus.buildTestStatusOk("mem", 1020));
+
+        Assert.assertTrue(galeraNode.getConflictRate() > 0);
+    }
+}
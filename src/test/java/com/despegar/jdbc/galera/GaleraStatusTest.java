@@ -0,0 +1,80 @@
+package com.despegar.jdbc.galera;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class GaleraStatusTest {
+
+    @Test
+    public void parsesReplicationLoadVariables() {
+        Map<String, String> statusMap = new HashMap<String, String>();
+        statusMap.put("wsrep_flow_control_paused", "0.250000");
+        statusMap.put("wsrep_local_recv_queue_avg", "12.5");
+        statusMap.put("wsrep_local_send_queue_avg", "0.003");
+        statusMap.put("wsrep_cert_deps_distance", "41.2");
+        GaleraStatus status = new GaleraStatus(statusMap);
+
+        Assert.assertEquals(0.25, status.flowControlPaused(), 0);
+        Assert.assertEquals(12.5, status.localRecvQueueAvg(), 0);
+        Assert.assertEquals(0.003, status.localSendQueueAvg(), 0);
+        Assert.assertEquals(41.2, status.certDepsDistance(), 0);
+    }
+
+    @Test
+    public void missingReplicationLoadVariablesAreZero() {
+        GaleraStatus status = GaleraStatus.buildTestStatusOk("node");
+
+        Assert.assertEquals(0, status.flowControlPaused(), 0);
+        Assert.assertEquals(0, status.localRecvQueueAvg(), 0);
+    }
+
+    @Test
+    public void parsesClusterStatus() {
+        Map<String, String> statusMap = new HashMap<String, String>();
+        statusMap.put("wsrep_cluster_status", "Primary");
+        statusMap.put("wsrep_local_state_comment", "Donor/Desynced");
+        statusMap.put("wsrep_incoming_addresses", "10.0.0.1:3306,10.0.0.2:3306");
+        statusMap.put("wsrep_causal_reads", "ON");
+        statusMap.put("Threads_connected", "12");
+        GaleraStatus status = new GaleraStatus(statusMap);
+
+        Assert.assertTrue(status.isPrimary());
+        Assert.assertTrue(status.isDonor());
+        Assert.assertFalse(status.isSynced());
+        Assert.assertEquals(NodeState.DONOR_DESYNCED, status.nodeState());
+        Assert.assertEquals(Arrays.asList("10.0.0.1:3306", "10.0.0.2:3306"), status.getClusterNodes());
+        Assert.assertFalse(status.supportsSyncWait());
+        Assert.assertEquals("ON", status.getGlobalConsistencyLevel());
+        Assert.assertEquals(Integer.valueOf(12), status.threadsConnectedCount());
+    }
+
+    @Test
+    public void parsesJoiningStates() {
+        Assert.assertEquals(NodeState.JOINING, NodeState.fromComment("Joining: receiving State Transfer"));
+        Assert.assertEquals(NodeState.SYNCED, NodeState.fromComment("Synced"));
+        Assert.assertEquals(NodeState.UNKNOWN, NodeState.fromComment(null));
+    }
+
+    @Test
+    public void parsesSegmentFromProviderOptions() {
+        Map<String, String> statusMap = new HashMap<String, String>();
+        statusMap.put("wsrep_provider_options", "evs.version = 0; gcache.size = 128M; gmcast.segment = 2; gmcast.time_wait = PT5S");
+        Assert.assertEquals(2, new GaleraStatus(statusMap).segment());
+
+        Assert.assertEquals(-1, GaleraStatus.buildTestStatusOk("node").segment());
+    }
+
+    @Test
+    public void localIndexOutOfThePrimaryComponentIsUnknown() {
+        Map<String, String> statusMap = new HashMap<String, String>();
+        statusMap.put("wsrep_local_index", "1");
+        Assert.assertEquals(1, new GaleraStatus(statusMap).localIndex());
+
+        statusMap.put("wsrep_local_index", "18446744073709551615");
+        Assert.assertEquals(-1, new GaleraStatus(statusMap).localIndex());
+    }
+}
@@ -0,0 +1,48 @@
+package com.despegar.jdbc.galera;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.TimeUnit;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void onlyRolledBackTransactionsAreRetriedUnlessIdempotent() {
+        RetryPolicy retryPolicy = RetryPolicy.newBuilder().build();
+        SQLException connectionFailure = new SQLTransientConnectionException("Communications link failure", "08S01");
+
+        Assert.assertTrue(retryPolicy.isRetryable(new SQLException("Deadlock found when trying to get lock", "40001", 1213)));
+        Assert.assertTrue(retryPolicy.isRetryable(new SQLException("WSREP has not yet prepared node for application use", "08S01", 1047)));
+        Assert.assertFalse(retryPolicy.isRetryable(new SQLException("Duplicate entry", "23000", 1062)));
+        Assert.assertFalse(retryPolicy.isRetryable(connectionFailure));
+        Assert.assertTrue(RetryPolicy.newBuilder().idempotent(true).build().isRetryable(connectionFailure));
+    }
+
+    @Test
+    public void backoffIsJitteredUpToACapDoubledOnEachAttempt() {
+        RetryPolicy retryPolicy = RetryPolicy.newBuilder()
+                .baseBackoff(10, TimeUnit.MILLISECONDS)
+                .maxBackoff(50, TimeUnit.MILLISECONDS)
+                .build();
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(retryPolicy.backoff(1) <= 10);
+            Assert.assertTrue(retryPolicy.backoff(2) <= 20);
+            Assert.assertTrue(retryPolicy.backoff(10) <= 50);
+            Assert.assertTrue(retryPolicy.backoff(Integer.MAX_VALUE) >= 0);
+        }
+    }
+
+    @Test
+    public void retriesAreLimitedPerWindow() {
+        RetryPolicy retryPolicy = RetryPolicy.newBuilder().retryBudget(2, 1, TimeUnit.SECONDS).build();
+
+        Assert.assertTrue(retryPolicy.tryAcquireRetry(10000));
+        Assert.assertTrue(retryPolicy.tryAcquireRetry(10500));
+        Assert.assertFalse(retryPolicy.tryAcquireRetry(10999));
+        Assert.assertTrue(retryPolicy.tryAcquireRetry(11000));
+    }
+}
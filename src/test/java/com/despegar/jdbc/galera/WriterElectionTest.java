@@ -0,0 +1,141 @@
+package com.despegar.jdbc.galera;
+
+import com.despegar.jdbc.galera.listener.GaleraClientLoggingListener;
+import com.despegar.jdbc.galera.settings.ClientSettings;
+import com.despegar.jdbc.galera.settings.PoolSettings;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class WriterElectionTest {
+    private static final GaleraDB GALERA_DB = new GaleraDB("writerElection", "sa", "", "jdbc:h2:mem:", "_");
+    private static final PoolSettings POOL_SETTINGS = PoolSettings.newBuilder().build();
+    private static final long FENCING_PERIOD = 200;
+
+    private final List<String> elections = new ArrayList<String>();
+    private WriterElection writerElection;
+    private GaleraNode node1;
+    private GaleraNode node2;
+    private GaleraNode node3;
+
+    private class RecordingListener extends GaleraClientLoggingListener {
+        @Override
+        public void onElectingWriter(String node, String previousWriter) {
+            elections.add(previousWriter + "->" + node);
+        }
+    }
+
+    @Before
+    public void initialize() {
+        writerElection = new WriterElection(ClientSettings.newBuilder()
+                                                    .singleWriter(true)
+                                                    .writerFencingPeriod(FENCING_PERIOD)
+                                                    .galeraClientListener(new RecordingListener())
+                                                    .build(), 1000);
+        node1 = new GaleraNode("node1", GALERA_DB, POOL_SETTINGS, POOL_SETTINGS, true);
+        node2 = new GaleraNode("node2", GALERA_DB, POOL_SETTINGS, POOL_SETTINGS, true);
+        node3 = new GaleraNode("node3", GALERA_DB, POOL_SETTINGS, POOL_SETTINGS, true);
+    }
+
+    @Test
+    public void firstWriterIsElectedRightAway() {
+        writerElection.elect(Arrays.asList(node2, node1), 1000);
+
+        Assert.assertEquals("node1", writerElection.getWriter());
+        Assert.assertNull(writerElection.getPendingWriter());
+        Assert.assertEquals(Collections.singletonList("null->node1"), elections);
+    }
+
+    @Test
+    public void writerIsTheNodeWithTheLowestLocalIndex() {
+        node1.refreshStatus(statusWithLocalIndex(1));
+        node2.refreshStatus(statusWithLocalIndex(0));
+
+        writerElection.elect(Arrays.asList(node1, node2), 1000);
+
+        Assert.assertEquals("node2", writerElection.getWriter());
+    }
+
+    @Test
+    public void newWriterIsFencedInAfterWriterGoesDown() {
+        writerElection.elect(Arrays.asList(node1, node2), 1000);
+
+        writerElection.elect(Collections.singletonList(node2), 2000);
+        Assert.assertNull(writerElection.getWriter());
+        Assert.assertEquals("node2", writerElection.getPendingWriter());
+        Assert.assertEquals(ImmutableSet.of("node2"), writerElection.writers());
+        Assert.assertFalse(writerElection.isFencingOver(2000 + FENCING_PERIOD - 1));
+
+        writerElection.elect(Collections.singletonList(node2), 2000 + FENCING_PERIOD - 1);
+        Assert.assertNull(writerElection.getWriter());
+
+        Assert.assertTrue(writerElection.isFencingOver(2000 + FENCING_PERIOD));
+        writerElection.elect(Collections.singletonList(node2), 2000 + FENCING_PERIOD);
+        Assert.assertEquals("node2", writerElection.getWriter());
+        Assert.assertNull(writerElection.getPendingWriter());
+        Assert.assertEquals(Arrays.asList("null->node1", "node1->node2"), elections);
+    }
+
+    @Test
+    public void writesStayOnWriterWhileBetterCandidateIsFencedIn() {
+        writerElection.elect(Collections.singletonList(node2), 1000);
+
+        writerElection.elect(Arrays.asList(node1, node2), 2000);
+        Assert.assertEquals("node2", writerElection.getWriter());
+        Assert.assertEquals("node1", writerElection.getPendingWriter());
+        Assert.assertEquals(ImmutableSet.of("node1", "node2"), writerElection.writers());
+
+        writerElection.elect(Arrays.asList(node1, node2), 2000 + FENCING_PERIOD);
+        Assert.assertEquals("node1", writerElection.getWriter());
+        Assert.assertEquals(ImmutableSet.of("node1"), writerElection.writers());
+    }
+
+    @Test
+    public void candidateLeavingBeforeItsFencingPeriodKeepsWriter() {
+        writerElection.elect(Collections.singletonList(node2), 1000);
+        writerElection.elect(Arrays.asList(node1, node2), 2000);
+
+        writerElection.elect(Collections.singletonList(node2), 2100);
+        Assert.assertEquals("node2", writerElection.getWriter());
+        Assert.assertNull(writerElection.getPendingWriter());
+        Assert.assertFalse(writerElection.isFencingOver(2000 + FENCING_PERIOD));
+        Assert.assertEquals(Collections.singletonList("null->node2"), elections);
+    }
+
+    @Test
+    public void noWriterWithoutActiveNodes() {
+        writerElection.elect(Collections.<GaleraNode>emptyList(), 1000);
+
+        Assert.assertNull(writerElection.getWriter());
+        Assert.assertTrue(writerElection.writers().isEmpty());
+    }
+
+    @Test
+    public void writerSetIsTheFirstNodesInWriterOrderAndKeptWhileTheyDoNotChange() {
+        WriterElection writerSetElection = new WriterElection(ClientSettings.newBuilder().writerSetSize(2).build(), 1000);
+        node3.refreshStatus(statusWithLocalIndex(0));
+
+        writerSetElection.publishWriterSet(new ClusterTopology(1, Arrays.asList(node1, node2, node3)));
+        ClusterTopology writerSet = writerSetElection.getWriterSet();
+        Assert.assertEquals(Arrays.asList("node3", "node1"), writerSet.nodeNames());
+        Assert.assertEquals(ImmutableSet.of("node1", "node3"), writerSetElection.writers());
+
+        writerSetElection.updateWriterSet(new ClusterTopology(1, Arrays.asList(node1, node2, node3)), 2000);
+        Assert.assertSame(writerSet, writerSetElection.getWriterSet());
+
+        ClusterTopology twoNodes = new ClusterTopology(2, Arrays.asList(node1, node2));
+        writerSetElection.publishWriterSet(twoNodes);
+        Assert.assertSame(twoNodes, writerSetElection.getWriterSet());
+    }
+
+    private static GaleraStatus statusWithLocalIndex(int localIndex) {
+        return new GaleraStatus(ImmutableMap.of("wsrep_local_index", String.valueOf(localIndex)), 1000);
+    }
+}
@@ -0,0 +1,34 @@
+package com.despegar.jdbc.galera.consistency;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * H2 does not know about galera session variables: they are recorded and mapped to H2 user variables.
+ */
+class RecordingConnection extends DelegatingConnection {
+    final List<String> statements = new ArrayList<String>();
+    int closeCount;
+    boolean failOnPrepare;
+
+    RecordingConnection(Connection delegate) {
+        super(delegate);
+    }
+
+    @Override
+    public PreparedStatement prepareStatement(String sql) throws SQLException {
+        if (failOnPrepare) {
+            throw new SQLException("Connection reset");
+        }
+        statements.add(sql);
+        return delegate.prepareStatement(sql.replace("SET SESSION ", "SET @"));
+    }
+
+    @Override
+    public void close() throws SQLException {
+        closeCount++;
+    }
+}
@@ -0,0 +1,74 @@
+package com.despegar.jdbc.galera.consistency;
+
+import com.despegar.jdbc.galera.GaleraStatus;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+public class SessionConsistencyTrackerTest {
+    private SessionConsistencyTracker tracker;
+    private RecordingConnection physicalConnection;
+    private GaleraStatus status;
+
+    @Before
+    public void initialize() throws SQLException {
+        tracker = new SessionConsistencyTracker();
+        physicalConnection = new RecordingConnection(DriverManager.getConnection("jdbc:h2:mem:", "sa", ""));
+        Map<String, String> statusMap = new HashMap<String, String>();
+        statusMap.put("wsrep_sync_wait", ConsistencyLevel.SYNC_OFF.value);
+        status = new GaleraStatus(statusMap);
+    }
+
+    @After
+    public void shutdown() throws SQLException {
+        physicalConnection.getDelegate().close();
+    }
+
+    @Test
+    public void setsLevelOnlyWhenItChanges() throws SQLException {
+        tracker.ensure(physicalConnection, ConsistencyLevel.SYNC_READS.value, status);
+        tracker.ensure(physicalConnection, ConsistencyLevel.SYNC_READS.value, status);
+        Assert.assertEquals(1, physicalConnection.statements.size());
+
+        tracker.ensure(physicalConnection, ConsistencyLevel.SYNC_READ_UPDATE_DELETE.value, status);
+        Assert.assertEquals(2, physicalConnection.statements.size());
+    }
+
+    @Test
+    public void untouchedSessionsAreAssumedToHaveTheGlobalLevel() throws SQLException {
+        tracker.ensure(physicalConnection, ConsistencyLevel.SYNC_OFF.value, status);
+        tracker.ensureGlobal(physicalConnection, status);
+
+        Assert.assertTrue(physicalConnection.statements.isEmpty());
+    }
+
+    @Test
+    public void restoresGlobalLevelOnlyOnChangedSessions() throws SQLException {
+        tracker.ensure(physicalConnection, ConsistencyLevel.SYNC_READS.value, status);
+        tracker.ensureGlobal(physicalConnection, status);
+        tracker.ensureGlobal(physicalConnection, status);
+
+        Assert.assertEquals(2, physicalConnection.statements.size());
+    }
+
+    @Test
+    public void forgetsSessionLevelWhenSetFails() throws SQLException {
+        tracker.ensure(physicalConnection, ConsistencyLevel.SYNC_READS.value, status);
+        physicalConnection.failOnPrepare = true;
+        try {
+            tracker.ensure(physicalConnection, ConsistencyLevel.SYNC_READ_UPDATE_DELETE.value, status);
+            Assert.fail("SQLException expected");
+        } catch (SQLException expected) {
+            physicalConnection.failOnPrepare = false;
+        }
+
+        tracker.ensure(physicalConnection, ConsistencyLevel.SYNC_READS.value, status);
+        Assert.assertEquals(2, physicalConnection.statements.size());
+    }
+}
@@ -0,0 +1,59 @@
+package com.despegar.jdbc.galera.discovery;
+
+import com.despegar.jdbc.galera.consistency.ReplicationLagBound;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CommitHistoryTest {
+
+    @Test
+    public void lagIsUnknownUntilASeqnoIsSeen() {
+        CommitHistory history = new CommitHistory();
+
+        Assert.assertEquals(CommitHistory.UNKNOWN, history.lagTransactions(10, 1000));
+        Assert.assertEquals(CommitHistory.UNKNOWN, history.lagMillis(10, 1000));
+
+        history.onCommitted(10, 1000);
+        Assert.assertEquals(CommitHistory.UNKNOWN, history.lagTransactions(-1, 1000));
+    }
+
+    @Test
+    public void lagIsMeasuredFromTheMostAdvancedNode() {
+        CommitHistory history = new CommitHistory();
+        history.onCommitted(100, 1000);
+        history.onCommitted(150, 2000);
+        history.onCommitted(120, 2500);
+        history.onCommitted(200, 3000);
+
+        Assert.assertEquals(200, history.head());
+        Assert.assertEquals(0, history.lagTransactions(200, 3500));
+        Assert.assertEquals(50, history.lagTransactions(150, 3500));
+        // the cluster was at 150 when a status taken at 2000 was at 150, whatever later probes saw
+        Assert.assertEquals(0, history.lagTransactions(150, 2000));
+        Assert.assertEquals(CommitHistory.UNKNOWN, history.lagTransactions(150, 500));
+
+        Assert.assertEquals(0, history.lagMillis(200, 3500));
+        // the cluster was past 150 at 3000, the node status taken at 3500 still was at 150
+        Assert.assertEquals(500, history.lagMillis(150, 3500));
+        Assert.assertEquals(1500, history.lagMillis(120, 3500));
+    }
+
+    @Test
+    public void oldestEntriesAreDropped() {
+        CommitHistory history = new CommitHistory(2);
+        history.onCommitted(100, 1000);
+        history.onCommitted(150, 2000);
+        history.onCommitted(200, 3000);
+
+        Assert.assertEquals(200, history.head());
+        Assert.assertEquals(1000, history.lagMillis(50, 3000));
+    }
+
+    @Test
+    public void boundAcceptsLagWithinIt() {
+        Assert.assertTrue(ReplicationLagBound.transactions(10).accepts(10, 60000));
+        Assert.assertFalse(ReplicationLagBound.transactions(10).accepts(11, 0));
+        Assert.assertTrue(ReplicationLagBound.millis(500).accepts(1000, 500));
+        Assert.assertFalse(ReplicationLagBound.millis(500).accepts(0, CommitHistory.UNKNOWN));
+    }
+}
@@ -0,0 +1,79 @@
+package com.despegar.jdbc.galera.discovery;
+
+import com.despegar.jdbc.galera.GaleraStatus;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+public class NodeProberTest {
+    private NodeProber prober;
+
+    @After
+    public void shutdown() {
+        if (prober != null) {
+            prober.shutdown();
+        }
+    }
+
+    @Test
+    public void slowNodeDoesNotHoldUpHealthyNodes() {
+        prober = new NodeProber(3, 200);
+
+        Map<String, Callable<GaleraStatus>> probes = new LinkedHashMap<String, Callable<GaleraStatus>>();
+        probes.put("slow:3306", slowProbe(5000));
+        probes.put("node-1:3306", okProbe("node-1:3306"));
+        probes.put("node-2:3306", okProbe("node-2:3306"));
+
+        DiscoveryCycleResult result = prober.probe(probes);
+
+        Assert.assertTrue(result.get("slow:3306").timedOut);
+        Assert.assertTrue(result.get("node-1:3306").isSuccess());
+        Assert.assertTrue(result.get("node-2:3306").isSuccess());
+        Assert.assertTrue("Cycle took " + result.elapsedMillis + " ms", result.elapsedMillis < 2000);
+    }
+
+    @Test
+    public void failedProbeIsReportedWithItsCause() {
+        prober = new NodeProber(1, 0);
+
+        Map<String, Callable<GaleraStatus>> probes = new LinkedHashMap<String, Callable<GaleraStatus>>();
+        probes.put("broken:3306", new Callable<GaleraStatus>() {
+            @Override
+            public GaleraStatus call() throws Exception {
+                throw new SQLException("Connection refused");
+            }
+        });
+        probes.put("node-1:3306", okProbe("node-1:3306"));
+
+        DiscoveryCycleResult result = prober.probe(probes);
+
+        Assert.assertEquals(2, result.size());
+        Assert.assertFalse(result.get("broken:3306").isSuccess());
+        Assert.assertEquals("Connection refused", result.get("broken:3306").failure.get().getMessage());
+        Assert.assertTrue(result.get("node-1:3306").isSuccess());
+    }
+
+    private Callable<GaleraStatus> okProbe(final String node) {
+        return new Callable<GaleraStatus>() {
+            @Override
+            public GaleraStatus call() throws Exception {
+                return GaleraStatus.buildTestStatusOk(node);
+            }
+        };
+    }
+
+    private Callable<GaleraStatus> slowProbe(final long millis) {
+        return new Callable<GaleraStatus>() {
+            @Override
+            public GaleraStatus call() throws Exception {
+                Thread.sleep(millis);
+                return GaleraStatus.buildTestStatusOk("slow:3306");
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.despegar.jdbc.galera.discovery;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+
+public class ProbeScheduleTest {
+    private static final long DISCOVER_PERIOD = 1000;
+
+    @Test
+    public void unknownNodesAreAlwaysDue() {
+        ProbeSchedule schedule = new ProbeSchedule(DISCOVER_PERIOD, 5000, 60000);
+
+        Assert.assertTrue(schedule.isDue("node-1:3306", 0));
+    }
+
+    @Test
+    public void healthyNodesAreProbedAtTheRelaxedPeriod() {
+        ProbeSchedule schedule = new ProbeSchedule(DISCOVER_PERIOD, 5000, 60000);
+        schedule.onHealthy("node-1:3306", 0);
+
+        Assert.assertFalse(schedule.isDue("node-1:3306", 1000));
+        Assert.assertFalse(schedule.isDue("node-1:3306", 4000));
+        Assert.assertTrue(schedule.isDue("node-1:3306", 4990));
+    }
+
+    @Test
+    public void healthyNodesAreProbedOnEveryTickByDefault() {
+        ProbeSchedule schedule = new ProbeSchedule(DISCOVER_PERIOD, DISCOVER_PERIOD, DISCOVER_PERIOD);
+        schedule.onHealthy("node-1:3306", 0);
+
+        Assert.assertTrue(schedule.isDue("node-1:3306", 990));
+    }
+
+    @Test
+    public void downedNodesBackOffExponentiallyUpToTheMax() {
+        ProbeSchedule schedule = new ProbeSchedule(DISCOVER_PERIOD, DISCOVER_PERIOD, 8000);
+
+        Assert.assertEquals(DISCOVER_PERIOD, schedule.backoff(1));
+        assertBetween(1000, 2000, schedule.backoff(2));
+        assertBetween(2000, 4000, schedule.backoff(3));
+        assertBetween(4000, 8000, schedule.backoff(4));
+        assertBetween(4000, 8000, schedule.backoff(30));
+    }
+
+    @Test
+    public void probeNowMakesBackedOffNodesDue() {
+        ProbeSchedule schedule = new ProbeSchedule(DISCOVER_PERIOD, DISCOVER_PERIOD, 60000);
+        for (int i = 0; i < 10; i++) {
+            schedule.onDowned("node-1:3306", 0);
+        }
+        Assert.assertFalse(schedule.isDue("node-1:3306", 1000));
+
+        schedule.probeNow(Collections.singleton("node-1:3306"));
+        Assert.assertTrue(schedule.isDue("node-1:3306", 1000));
+    }
+
+    private void assertBetween(long min, long max, long value) {
+        Assert.assertTrue(value + " not in [" + min + ", " + max + "]", value >= min && value <= max);
+    }
+
+    @Test
+    public void probeNowForcesTheNextProbeOnly() {
+        ProbeSchedule schedule = new ProbeSchedule(DISCOVER_PERIOD, DISCOVER_PERIOD, 60000);
+        schedule.onHealthy("node-1:3306", 0);
+        Assert.assertFalse(schedule.isForced("node-1:3306"));
+
+        schedule.probeNow(Collections.singleton("node-1:3306"));
+        Assert.assertTrue(schedule.isForced("node-1:3306"));
+
+        schedule.onHealthy("node-1:3306", 100);
+        Assert.assertFalse(schedule.isForced("node-1:3306"));
+    }
+}
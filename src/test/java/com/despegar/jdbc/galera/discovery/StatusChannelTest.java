@@ -0,0 +1,77 @@
+package com.despegar.jdbc.galera.discovery;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+public class StatusChannelTest {
+    private static final String JDBC_URL = "jdbc:h2:mem:statusChannelTest";
+
+    private Connection adminConnection;
+    private StatusChannel statusChannel;
+
+    @Before
+    public void initialize() throws SQLException {
+        // The admin connection keeps the in-memory database while the channel reconnects.
+        adminConnection = DriverManager.getConnection(JDBC_URL, "sa", "");
+        Statement statement = adminConnection.createStatement();
+        try {
+            statement.execute("CREATE SCHEMA IF NOT EXISTS PERFORMANCE_SCHEMA");
+            statement.execute("CREATE TABLE PERFORMANCE_SCHEMA.GLOBAL_STATUS (VARIABLE_NAME VARCHAR(64), VARIABLE_VALUE VARCHAR(1024))");
+            statement.execute("CREATE TABLE PERFORMANCE_SCHEMA.GLOBAL_VARIABLES (VARIABLE_NAME VARCHAR(64), VARIABLE_VALUE VARCHAR(1024))");
+            statement.execute("INSERT INTO PERFORMANCE_SCHEMA.GLOBAL_STATUS VALUES ('wsrep_cluster_status', 'Primary')");
+        } finally {
+            statement.close();
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty("user", "sa");
+        properties.setProperty("password", "");
+        statusChannel = new StatusChannel("node1", JDBC_URL, properties, 0);
+    }
+
+    @After
+    public void shutdown() throws SQLException {
+        statusChannel.close();
+        adminConnection.close();
+    }
+
+    @Test
+    public void connectionIsKeptBetweenProbes() throws SQLException {
+        StatusQuery statusQuery = new StatusQuery();
+        Assert.assertNull(statusChannel.currentConnection());
+
+        statusChannel.query(statusQuery);
+        Connection connection = statusChannel.currentConnection();
+        Assert.assertEquals("Primary", statusChannel.query(statusQuery).get("wsrep_cluster_status"));
+        Assert.assertSame(connection, statusChannel.currentConnection());
+    }
+
+    @Test
+    public void brokenConnectionIsReopenedWithinTheSameProbe() throws SQLException {
+        StatusQuery statusQuery = new StatusQuery();
+        statusChannel.query(statusQuery);
+        Connection broken = statusChannel.currentConnection();
+        broken.close();
+
+        Assert.assertEquals("Primary", statusChannel.query(statusQuery).get("wsrep_cluster_status"));
+        Assert.assertNotSame(broken, statusChannel.currentConnection());
+    }
+
+    @Test(expected = SQLException.class)
+    public void closedChannelFailsProbes() throws SQLException {
+        StatusQuery statusQuery = new StatusQuery();
+        statusChannel.query(statusQuery);
+        statusChannel.close();
+
+        Assert.assertNull(statusChannel.currentConnection());
+        statusChannel.query(statusQuery);
+    }
+}
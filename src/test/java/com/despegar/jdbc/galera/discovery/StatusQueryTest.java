@@ -0,0 +1,72 @@
+package com.despegar.jdbc.galera.discovery;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+public class StatusQueryTest {
+    private Connection connection;
+
+    @Before
+    public void initialize() throws SQLException {
+        // H2 has no GLOBAL_STATUS in its information_schema, the tables are faked in a performance_schema schema.
+        // The in-memory database is dropped when the connection is closed.
+        connection = DriverManager.getConnection("jdbc:h2:mem:statusQueryTest", "sa", "");
+        execute("CREATE SCHEMA IF NOT EXISTS PERFORMANCE_SCHEMA");
+        execute("CREATE TABLE PERFORMANCE_SCHEMA.GLOBAL_STATUS (VARIABLE_NAME VARCHAR(64), VARIABLE_VALUE VARCHAR(1024))");
+        execute("CREATE TABLE PERFORMANCE_SCHEMA.GLOBAL_VARIABLES (VARIABLE_NAME VARCHAR(64), VARIABLE_VALUE VARCHAR(1024))");
+        execute("INSERT INTO PERFORMANCE_SCHEMA.GLOBAL_STATUS VALUES ('wsrep_cluster_status', 'Primary')");
+        execute("INSERT INTO PERFORMANCE_SCHEMA.GLOBAL_STATUS VALUES ('wsrep_local_state_comment', 'Synced')");
+        execute("INSERT INTO PERFORMANCE_SCHEMA.GLOBAL_STATUS VALUES ('wsrep_received', '12')");
+        execute("INSERT INTO PERFORMANCE_SCHEMA.GLOBAL_VARIABLES VALUES ('wsrep_sync_wait', '0')");
+        execute("INSERT INTO PERFORMANCE_SCHEMA.GLOBAL_VARIABLES VALUES ('wsrep_provider_options', 'base_dir = /var/lib/mysql/;')");
+    }
+
+    @After
+    public void shutdown() throws SQLException {
+        connection.close();
+    }
+
+    @Test
+    public void readsOnlyTheVariablesInUseFromTheFirstSourceThatWorks() throws SQLException {
+        StatusQuery statusQuery = new StatusQuery();
+        Map<String, String> variables = statusQuery.query(connection);
+
+        Assert.assertEquals(StatusQuery.Source.PERFORMANCE_SCHEMA, statusQuery.source());
+        Assert.assertEquals("Primary", variables.get("wsrep_cluster_status"));
+        Assert.assertEquals("Synced", variables.get("wsrep_local_state_comment"));
+        Assert.assertEquals("0", variables.get("wsrep_sync_wait"));
+        Assert.assertFalse(variables.containsKey("wsrep_received"));
+        // truncated in the schema tables, it is only read with SHOW GLOBAL VARIABLES, which H2 does not support
+        Assert.assertFalse(variables.containsKey("wsrep_provider_options"));
+    }
+
+    @Test
+    public void globalVariablesAreCached() throws SQLException {
+        StatusQuery statusQuery = new StatusQuery();
+        statusQuery.query(connection);
+
+        execute("UPDATE PERFORMANCE_SCHEMA.GLOBAL_VARIABLES SET VARIABLE_VALUE = '1' WHERE VARIABLE_NAME = 'wsrep_sync_wait'");
+        execute("UPDATE PERFORMANCE_SCHEMA.GLOBAL_STATUS SET VARIABLE_VALUE = 'Donor/Desynced' WHERE VARIABLE_NAME = 'wsrep_local_state_comment'");
+        Map<String, String> variables = statusQuery.query(connection);
+
+        Assert.assertEquals("Donor/Desynced", variables.get("wsrep_local_state_comment"));
+        Assert.assertEquals("0", variables.get("wsrep_sync_wait"));
+    }
+
+    private void execute(String sql) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            statement.execute(sql);
+        } finally {
+            statement.close();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraDB;
+import com.despegar.jdbc.galera.GaleraNode;
+import com.despegar.jdbc.galera.settings.PoolSettings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+public class LatencyAwarePolicyTest {
+    private static final GaleraDB GALERA_DB = new GaleraDB("latencyAware;DB_CLOSE_DELAY=-1", "sa", "", "jdbc:h2:mem:", "_");
+    private static final PoolSettings POOL_SETTINGS = PoolSettings.newBuilder()
+            .minConnectionsIdlePerHost(1)
+            .maxConnectionsPerHost(4)
+            .connectionTimeout(1000)
+            .isolationLevel("TRANSACTION_READ_COMMITTED")
+            .build();
+
+    private GaleraNode node1;
+    private GaleraNode node2;
+    private ClusterTopology topology;
+    private LatencyAwarePolicy policy = new LatencyAwarePolicy();
+
+    @Before
+    public void initialize() {
+        node1 = newNode("node1");
+        node2 = newNode("node2");
+        topology = new ClusterTopology(1, Arrays.asList(node1, node2));
+    }
+
+    @After
+    public void shutdown() {
+        node1.shutdown();
+        node2.shutdown();
+    }
+
+    @Test
+    public void avoidsNodeWithInFlightConnections() throws Exception {
+        Connection connection = node1.getConnection();
+        try {
+            assertChooses(node2);
+        } finally {
+            connection.close();
+        }
+    }
+
+    @Test
+    public void choosesNodeWithLowerLatencyWhenInFlightConnectionsAreEqual() throws Exception {
+        node1.recordAcquireLatency(TimeUnit.MILLISECONDS.toNanos(5));
+        node2.recordAcquireLatency(TimeUnit.MILLISECONDS.toNanos(1));
+        Connection connection1 = node1.getConnection();
+        Connection connection2 = node2.getConnection();
+        try {
+            assertChooses(node2);
+        } finally {
+            connection1.close();
+            connection2.close();
+        }
+    }
+
+    @Test
+    public void choosesNodeWithFewerInFlightConnectionsWhenLatenciesAreEqual() throws Exception {
+        node1.recordAcquireLatency(TimeUnit.MILLISECONDS.toNanos(2));
+        node2.recordAcquireLatency(TimeUnit.MILLISECONDS.toNanos(2));
+        Connection connection1 = node1.getConnection();
+        Connection connection2 = node1.getConnection();
+        Connection connection3 = node2.getConnection();
+        try {
+            assertChooses(node2);
+        } finally {
+            connection1.close();
+            connection2.close();
+            connection3.close();
+        }
+    }
+
+    @Test
+    public void fasterNodeLosesOnceItHasEnoughInFlightConnections() throws Exception {
+        // costs: 1 ms x (3 + 1) in flight for node1, 3 ms x (0 + 1) for node2
+        node1.recordAcquireLatency(TimeUnit.MILLISECONDS.toNanos(1));
+        node2.recordAcquireLatency(TimeUnit.MILLISECONDS.toNanos(3));
+        Connection connection1 = node1.getConnection();
+        Connection connection2 = node1.getConnection();
+        Connection connection3 = node1.getConnection();
+        try {
+            assertChooses(node2);
+        } finally {
+            connection1.close();
+            connection2.close();
+            connection3.close();
+        }
+    }
+
+    private void assertChooses(GaleraNode galeraNode) {
+        for (int i = 0; i < 10; i++) {
+            Assert.assertSame(galeraNode, policy.chooseNode(topology));
+        }
+    }
+
+    private GaleraNode newNode(String name) {
+        GaleraNode galeraNode = new GaleraNode(name, GALERA_DB, POOL_SETTINGS, POOL_SETTINGS, true);
+        galeraNode.onActivate();
+        return galeraNode;
+    }
+}
@@ -0,0 +1,77 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraDB;
+import com.despegar.jdbc.galera.GaleraNode;
+import com.despegar.jdbc.galera.settings.PoolSettings;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.Arrays;
+
+public class LeastOutstandingRequestsPolicyTest {
+    private static final GaleraDB GALERA_DB = new GaleraDB("leastOutstanding;DB_CLOSE_DELAY=-1", "sa", "", "jdbc:h2:mem:", "_");
+    private static final PoolSettings POOL_SETTINGS = PoolSettings.newBuilder()
+            .minConnectionsIdlePerHost(1)
+            .maxConnectionsPerHost(4)
+            .connectionTimeout(1000)
+            .isolationLevel("TRANSACTION_READ_COMMITTED")
+            .build();
+
+    private GaleraNode node1;
+    private GaleraNode node2;
+    private ClusterTopology topology;
+
+    @Before
+    public void initialize() {
+        node1 = newNode("node1");
+        node2 = newNode("node2");
+        topology = new ClusterTopology(1, Arrays.asList(node1, node2));
+    }
+
+    @After
+    public void shutdown() {
+        node1.shutdown();
+        node2.shutdown();
+    }
+
+    @Test
+    public void inFlightConnectionsAreCountedUntilClosed() throws Exception {
+        Connection connection = node1.getConnection();
+        Assert.assertEquals(1, node1.getInFlightConnections());
+
+        connection.close();
+        connection.close();
+        Assert.assertEquals(0, node1.getInFlightConnections());
+    }
+
+    @Test
+    public void chooseNodeWithFewestInFlightConnections() throws Exception {
+        assertChoosesIdleNode(new LeastOutstandingRequestsPolicy());
+    }
+
+    @Test
+    public void powerOfTwoChoicesChoosesNodeWithFewestInFlightConnections() throws Exception {
+        assertChoosesIdleNode(new LeastOutstandingRequestsPolicy(true));
+    }
+
+    private void assertChoosesIdleNode(TopologyAwarePolicy policy) throws Exception {
+        Connection connection = node1.getConnection();
+        try {
+            for (int i = 0; i < 10; i++) {
+                Assert.assertSame(node2, policy.chooseNode(topology));
+            }
+        } finally {
+            connection.close();
+        }
+    }
+
+    private GaleraNode newNode(String name) {
+        GaleraNode galeraNode = new GaleraNode(name, GALERA_DB, POOL_SETTINGS, POOL_SETTINGS, true);
+        galeraNode.onActivate();
+        return galeraNode;
+    }
+}
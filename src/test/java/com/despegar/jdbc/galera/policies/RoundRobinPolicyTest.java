@@ -0,0 +1,47 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraDB;
+import com.despegar.jdbc.galera.GaleraNode;
+import com.despegar.jdbc.galera.settings.PoolSettings;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+public class RoundRobinPolicyTest {
+    private static final GaleraDB GALERA_DB = new GaleraDB("test", "sa", "");
+    private static final PoolSettings POOL_SETTINGS = PoolSettings.newBuilder().minConnectionsIdlePerHost(1).build();
+
+    @Test
+    public void chooseNodeFromTopologyVisitsEveryNode() {
+        GaleraNode node1 = newNode("node-1:3306");
+        GaleraNode node2 = newNode("node-2:3306");
+        GaleraNode node3 = newNode("node-3:3306");
+        ClusterTopology topology = new ClusterTopology(1, Arrays.asList(node1, node2, node3));
+
+        RoundRobinPolicy policy = new RoundRobinPolicy();
+        Set<GaleraNode> selected = new HashSet<GaleraNode>();
+        for (int i = 0; i < topology.size(); i++) {
+            selected.add(policy.chooseNode(topology));
+        }
+
+        Assert.assertEquals(new HashSet<GaleraNode>(Arrays.asList(node1, node2, node3)), selected);
+    }
+
+    @Test
+    public void masterSortingChoosesFirstNodeByName() {
+        GaleraNode nodeB = newNode("node-b:3306");
+        GaleraNode nodeA = newNode("node-a:3306");
+        ClusterTopology topology = new ClusterTopology(1, Arrays.asList(nodeB, nodeA));
+
+        Assert.assertSame(nodeA, new MasterSortingNodesPolicy().chooseNode(topology));
+        Assert.assertEquals("node-a:3306", new MasterSortingNodesPolicy().chooseNode(topology.nodeNames()));
+    }
+
+    private GaleraNode newNode(String name) {
+        return new GaleraNode(name, GALERA_DB, POOL_SETTINGS, POOL_SETTINGS, true);
+    }
+}
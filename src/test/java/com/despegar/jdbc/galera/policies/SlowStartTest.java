@@ -0,0 +1,34 @@
+package com.despegar.jdbc.galera.policies;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class SlowStartTest {
+
+    @Test
+    public void linearRampGrowsEvenlyOverTheWindow() {
+        SlowStart slowStart = SlowStart.linear(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(SlowStart.INITIAL_WEIGHT, slowStart.weight(0), 0);
+        Assert.assertEquals(0.505, slowStart.weight(5000), 0.001);
+        Assert.assertEquals(1, slowStart.weight(10000), 0);
+        Assert.assertEquals(1, slowStart.weight(60000), 0);
+    }
+
+    @Test
+    public void exponentialRampStartsSlowerThanLinear() {
+        SlowStart slowStart = SlowStart.exponential(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(SlowStart.INITIAL_WEIGHT, slowStart.weight(0), 0.0001);
+        Assert.assertEquals(0.1, slowStart.weight(5000), 0.001);
+        Assert.assertTrue(slowStart.weight(9000) < SlowStart.linear(10, TimeUnit.SECONDS).weight(9000));
+        Assert.assertEquals(1, slowStart.weight(10000), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void windowMustBePositive() {
+        SlowStart.linear(0, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,92 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraClient;
+import com.despegar.jdbc.galera.GaleraNode;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class WeightedRoundRobinPolicyTest {
+    private GaleraClient client;
+
+    @Before
+    public void initialize() {
+        client = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .jdbcUrlSeparator("_")
+                .seeds("node1, node2, node3")
+                .database("weighted;DB_CLOSE_DELAY=-1")
+                .user("sa")
+                .connectionTimeout(1000)
+                .nodeWeight("node1", 5)
+                .build();
+    }
+
+    @After
+    public void shutdown() {
+        client.shutdown();
+    }
+
+    @Test
+    public void nodesAreInterleavedInProportionToTheirWeights() {
+        GaleraNode[] schedule = WeightedRoundRobinPolicy.schedule(client.getTopology());
+
+        Assert.assertArrayEquals(new String[]{"node1", "node1", "node2", "node1", "node3", "node1", "node1"}, names(schedule));
+    }
+
+    @Test
+    public void weightsCanBeChangedAtRuntime() {
+        WeightedRoundRobinPolicy policy = new WeightedRoundRobinPolicy();
+        policy.chooseNode(client.getTopology());
+
+        client.setNodeWeight("node1", 0);
+        client.setNodeWeight("node3", 2);
+        ClusterTopology topology = client.getTopology();
+        int[] choices = new int[3];
+        for (int i = 0; i < 30; i++) {
+            choices[topology.nodeNames().indexOf(policy.chooseNode(topology).node)]++;
+        }
+
+        Assert.assertEquals(0, choices[0]);
+        Assert.assertEquals(10, choices[1]);
+        Assert.assertEquals(20, choices[2]);
+    }
+
+    @Test
+    public void weightsAreReducedByTheirGreatestCommonDivisor() {
+        client.setNodeWeight("node1", 200);
+        client.setNodeWeight("node2", 100);
+        client.setNodeWeight("node3", 100);
+
+        Assert.assertEquals(4, WeightedRoundRobinPolicy.schedule(client.getTopology()).length);
+    }
+
+    @Test
+    public void filteredViewsKeepTheirOwnSequence() {
+        WeightedRoundRobinPolicy policy = new WeightedRoundRobinPolicy();
+        ClusterTopology topology = client.getTopology();
+        ClusterTopology view = ClusterTopology.filteredFrom(topology, Arrays.asList(topology.find("node1"), topology.find("node2")));
+        int[] choices = new int[3];
+        int[] viewChoices = new int[3];
+        for (int i = 0; i < 42; i++) {
+            choices[topology.nodeNames().indexOf(policy.chooseNode(topology).node)]++;
+            viewChoices[topology.nodeNames().indexOf(policy.chooseNode(view).node)]++;
+        }
+
+        Assert.assertArrayEquals(new int[]{30, 6, 6}, choices);
+        Assert.assertArrayEquals(new int[]{35, 7, 0}, viewChoices);
+    }
+
+    private static String[] names(GaleraNode[] schedule) {
+        String[] names = new String[schedule.length];
+        for (int i = 0; i < schedule.length; i++) {
+            names[i] = schedule[i].node;
+        }
+        return names;
+    }
+}
@@ -0,0 +1,79 @@
+package com.despegar.jdbc.galera.policies;
+
+import com.despegar.jdbc.galera.ClusterTopology;
+import com.despegar.jdbc.galera.GaleraClient;
+import com.despegar.jdbc.galera.GaleraNode;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public class ZoneAwarePolicyTest {
+    private GaleraClient client;
+
+    @Before
+    public void initialize() {
+        client = GaleraClient.newBuilder()
+                .testMode(true)
+                .jdbcUrlPrefix("jdbc:h2:mem:")
+                .jdbcUrlSeparator("_")
+                .seeds("node1, node2, node3")
+                .database("zones;DB_CLOSE_DELAY=-1")
+                .user("sa")
+                .connectionTimeout(1000)
+                .build();
+    }
+
+    @After
+    public void shutdown() {
+        client.shutdown();
+    }
+
+    @Test
+    public void localNodesAreChosen() {
+        ZoneAwarePolicy policy = new ZoneAwarePolicy("a", ZoneResolvers.fromMap(ImmutableMap.of("node1", "b", "node2", "a", "node3", "a")));
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertNotEquals("node1", policy.chooseNode(client.getTopology()).node);
+        }
+    }
+
+    @Test
+    public void spillsOverWhenNoLocalNodeIsActive() {
+        ZoneAwarePolicy policy = new ZoneAwarePolicy("c", ZoneResolvers.fromHostPattern(Pattern.compile("node(\\d)")));
+
+        Set<String> chosen = new HashSet<String>();
+        for (int i = 0; i < 3; i++) {
+            chosen.add(policy.chooseNode(client.getTopology()).node);
+        }
+
+        Assert.assertEquals(ImmutableSet.of("node1", "node2", "node3"), chosen);
+        Assert.assertEquals("node2", new ZoneAwarePolicy("2", ZoneResolvers.fromHostPattern(Pattern.compile("node(\\d)")))
+                .chooseNode(Arrays.asList("node1", "node2", "node3")));
+    }
+
+    @Test
+    public void spillsOverWhenLocalNodesAreSaturated() throws Exception {
+        ZoneResolver resolver = ZoneResolvers.fromHostPattern(Pattern.compile("node(1)"));
+        ZoneAwarePolicy policy = new ZoneAwarePolicy("1", resolver, new RoundRobinPolicy(), 1);
+        ClusterTopology topology = client.getTopology();
+
+        GaleraNode localNode = policy.chooseNode(topology);
+        Assert.assertEquals("node1", localNode.node);
+        Connection connection = localNode.getConnection();
+        try {
+            Assert.assertNotEquals("node1", policy.chooseNode(topology).node);
+        } finally {
+            connection.close();
+        }
+        Assert.assertEquals("node1", policy.chooseNode(topology).node);
+    }
+}
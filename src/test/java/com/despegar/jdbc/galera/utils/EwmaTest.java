@@ -0,0 +1,41 @@
+package com.despegar.jdbc.galera.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class EwmaTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void firstSampleIsTheAverage() {
+        Ewma ewma = new Ewma(10, TimeUnit.SECONDS);
+        Assert.assertEquals(0, ewma.get(0), 0);
+
+        ewma.update(100, 0);
+        Assert.assertEquals(100, ewma.get(0), 0);
+    }
+
+    @Test
+    public void samplesWeighByElapsedTime() {
+        Ewma ewma = new Ewma(10, TimeUnit.SECONDS);
+        ewma.update(100, 0);
+
+        ewma.update(200, SECOND);
+        double afterOneSecond = ewma.get(SECOND);
+        Assert.assertTrue(afterOneSecond > 100 && afterOneSecond < 150);
+
+        ewma.update(200, 60 * SECOND);
+        Assert.assertEquals(200, ewma.get(60 * SECOND), 1);
+    }
+
+    @Test
+    public void averageFadesWithoutSamples() {
+        Ewma ewma = new Ewma(10, TimeUnit.SECONDS);
+        ewma.update(100, 0);
+
+        Assert.assertEquals(100 * Math.exp(-1), ewma.get(10 * SECOND), 0.001);
+        Assert.assertTrue(ewma.get(120 * SECOND) < 0.001);
+    }
+}